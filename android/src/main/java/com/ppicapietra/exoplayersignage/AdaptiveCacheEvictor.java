@@ -0,0 +1,460 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/AdaptiveCacheEvictor.java
+package com.ppicapietra.exoplayersignage;
+
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadata;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadataMutations;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evictor whose budget follows the free space of the device instead of being fixed at load():
+ * a percentage of the space the cache could use (free + already cached), clamped to min/max, and
+ * never eating into a free-space reserve. The budget is recomputed periodically and before new
+ * files are written. While the cache is over budget it does not grow, and the excess is evicted in
+ * small steps in the background, so playback never hits a full disk or a long eviction pass.
+ *
+ * Eviction works on whole keys (media files). Pinned keys and keys of offline downloads (HLS/DASH
+ * segments, tracked apart from the app's pins) are never evicted. The others are ranked
+ * by play frequency (decaying over a few days) per megabyte, so a loop that plays every morning
+ * outlives a single large campaign; keys touched in the last minutes (e.g. being downloaded) go
+ * last. Pins and play counts are stored in the cache's content metadata and survive restarts.
+ * Note: Span state is guarded by the cache's monitor - SimpleCache calls every callback while
+ * holding it, and the background trim takes it as well.
+ */
+class AdaptiveCacheEvictor implements CacheEvictor {
+
+    static final long DEFAULT_MIN_BYTES = 2L * 1024 * 1024 * 1024;
+    static final long DEFAULT_MAX_BYTES = 0; // 0 = no upper limit
+    static final int DEFAULT_FREE_SPACE_PERCENT = 60;
+    static final long DEFAULT_RESERVE_BYTES = 512L * 1024 * 1024;
+    static final long DEFAULT_CHECK_INTERVAL_MS = 60 * 1000;
+
+    // Faster checks while the cache is over budget (low storage)
+    private static final long LOW_STORAGE_CHECK_INTERVAL_MS = 5 * 1000;
+    // Bytes evicted per background step
+    private static final long TRIM_STEP_BYTES = 64L * 1024 * 1024;
+    // onStartFile() re-reads the free space at most this often
+    private static final long MIN_RECOMPUTE_INTERVAL_MS = 1000;
+    // Play counts halve after this long without plays
+    private static final long PLAY_HALF_LIFE_MS = 3L * 24 * 60 * 60 * 1000;
+    // Keys touched this recently are only evicted when nothing else is left
+    private static final long RECENT_TOUCH_PROTECTION_MS = 10 * 60 * 1000;
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    // Content metadata names
+    private static final String METADATA_PINNED = "exo_signage_pinned";
+    private static final String METADATA_DOWNLOAD = "exo_signage_download";
+    private static final String METADATA_PLAYS = "exo_signage_plays_milli";
+    private static final String METADATA_LAST_PLAY = "exo_signage_last_play_ms";
+
+    // Cached spans of one key
+    private static class KeyState {
+        final Set<CacheSpan> spans = new HashSet<>();
+        long size;
+        long lastTouchMs;
+    }
+
+    // Decaying play counter of one key
+    private static class PlayRecord {
+        final double plays;
+        final long lastPlayMs;
+
+        PlayRecord(double plays, long lastPlayMs) {
+            this.plays = plays;
+            this.lastPlayMs = lastPlayMs;
+        }
+
+        double decayed(long now) {
+            long age = Math.max(0, now - lastPlayMs);
+            return plays * Math.pow(0.5, (double) age / PLAY_HALF_LIFE_MS);
+        }
+    }
+
+    private final File cacheDir;
+    private final Map<String, KeyState> keys = new HashMap<>();
+    private final Set<String> pinnedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> downloadKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Map<String, PlayRecord> playRecords = new ConcurrentHashMap<>();
+    private volatile long currentSize;
+    private volatile long budgetBytes;
+    private long lastRecomputeMs;
+    // Until SimpleCache has indexed every span, sizes are partial and the budget lacks the cached bytes
+    private volatile boolean initialized;
+
+    private volatile long minBytes = DEFAULT_MIN_BYTES;
+    private volatile long maxBytes = DEFAULT_MAX_BYTES;
+    private volatile int freeSpacePercent = DEFAULT_FREE_SPACE_PERCENT;
+    private volatile long reserveBytes = DEFAULT_RESERVE_BYTES;
+    private volatile long checkIntervalMs = DEFAULT_CHECK_INTERVAL_MS;
+
+    private Cache cache;
+    private ScheduledExecutorService scheduler;
+
+    AdaptiveCacheEvictor(File cacheDir) {
+        this.cacheDir = cacheDir;
+        this.budgetBytes = computeBudget();
+    }
+
+    void configure(long minBytes, long maxBytes, int freeSpacePercent, long reserveBytes, long checkIntervalMs) {
+        this.minBytes = Math.max(0, minBytes);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.freeSpacePercent = Math.max(0, Math.min(100, freeSpacePercent));
+        this.reserveBytes = Math.max(0, reserveBytes);
+        this.checkIntervalMs = Math.max(1000, checkIntervalMs);
+        budgetBytes = computeBudget();
+        scheduleCheck(0);
+    }
+
+    /**
+     * Start the periodic budget checks for the cache this evictor was given to.
+     */
+    synchronized void start(Cache cache) {
+        this.cache = cache;
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "ExoPlayerSignage-CacheBudget");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // Over budget after a restart (e.g. the disk filled up meanwhile): start trimming right away
+        scheduleCheck(initialized && currentSize > budgetBytes ? 0 : checkIntervalMs);
+    }
+
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        cache = null;
+    }
+
+    long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    long getCurrentSize() {
+        return currentSize;
+    }
+
+    /**
+     * Never evict these keys (whether they are cached yet or not).
+     */
+    void pin(Collection<String> cacheKeys) {
+        for (String key : cacheKeys) {
+            if (pinnedKeys.add(key)) {
+                persist(key);
+            }
+        }
+    }
+
+    void unpin(Collection<String> cacheKeys) {
+        for (String key : cacheKeys) {
+            if (pinnedKeys.remove(key)) {
+                persist(key);
+            }
+        }
+    }
+
+    /**
+     * Unpin every key. Returns the keys that were pinned.
+     */
+    Set<String> unpinAll() {
+        Set<String> unpinned = new HashSet<>(pinnedKeys);
+        unpin(unpinned);
+        return unpinned;
+    }
+
+    boolean isPinned(String key) {
+        return pinnedKeys.contains(key);
+    }
+
+    Set<String> getPinnedKeys() {
+        return new HashSet<>(pinnedKeys);
+    }
+
+    /**
+     * Never evict a key written by an offline download, until releaseDownloadKey().
+     */
+    void protectDownloadKey(String key) {
+        if (downloadKeys.add(key)) {
+            persist(key);
+        }
+    }
+
+    void releaseDownloadKey(String key) {
+        if (downloadKeys.remove(key)) {
+            persist(key);
+        }
+    }
+
+    /**
+     * Count a play of a key (single clip or playlist item).
+     */
+    void recordPlay(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (playRecords) {
+            PlayRecord previous = playRecords.get(key);
+            playRecords.put(key, new PlayRecord((previous != null ? previous.decayed(now) : 0) + 1, now));
+        }
+        persist(key);
+    }
+
+    /**
+     * Decayed play count of a key.
+     */
+    double getPlayCount(String key) {
+        PlayRecord record = playRecords.get(key);
+        return record != null ? record.decayed(System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * Store pin and play count of a key in the cache's content metadata (background thread).
+     */
+    private synchronized void persist(String key) {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.execute(() -> {
+            Cache currentCache;
+            synchronized (this) {
+                currentCache = cache;
+            }
+            if (currentCache == null) {
+                return;
+            }
+            ContentMetadataMutations mutations = new ContentMetadataMutations();
+            mutations.set(METADATA_PINNED, pinnedKeys.contains(key) ? 1 : 0);
+            mutations.set(METADATA_DOWNLOAD, downloadKeys.contains(key) ? 1 : 0);
+            PlayRecord record = playRecords.get(key);
+            if (record != null) {
+                mutations.set(METADATA_PLAYS, (long) (record.plays * 1000));
+                mutations.set(METADATA_LAST_PLAY, record.lastPlayMs);
+            }
+            try {
+                currentCache.applyContentMetadataMutations(key, mutations);
+            } catch (Exception e) {
+                android.util.Log.w("ExoPlayerSignage", "⚠️ Could not store cache metadata for " + key + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Restore pin and play count of a key seen for the first time (e.g. while the cache is initialized).
+     * Note: Called while holding the cache's monitor.
+     */
+    private void restoreMetadata(Cache cache, String key) {
+        ContentMetadata metadata = cache.getContentMetadata(key);
+        if (metadata.get(METADATA_PINNED, 0) == 1) {
+            pinnedKeys.add(key);
+        } else if (pinnedKeys.contains(key)) {
+            // Pinned before it was cached
+            persist(key);
+        }
+        if (metadata.get(METADATA_DOWNLOAD, 0) == 1) {
+            downloadKeys.add(key);
+        }
+        long plays = metadata.get(METADATA_PLAYS, 0);
+        if (plays > 0 && !playRecords.containsKey(key)) {
+            playRecords.put(key, new PlayRecord(plays / 1000.0, metadata.get(METADATA_LAST_PLAY, 0)));
+        }
+    }
+
+    private synchronized void scheduleCheck(long delayMs) {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.schedule(this::check, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recompute the budget and evict one step if the cache is over it.
+     */
+    private void check() {
+        Cache currentCache;
+        synchronized (this) {
+            currentCache = cache;
+        }
+        if (currentCache == null || !initialized) {
+            return;
+        }
+
+        boolean overBudget;
+        try {
+            synchronized (currentCache) {
+                budgetBytes = computeBudget();
+                lastRecomputeMs = SystemClock.elapsedRealtime();
+                evict(currentCache, Math.max(budgetBytes, currentSize - TRIM_STEP_BYTES), 0);
+                overBudget = currentSize > budgetBytes;
+            }
+        } catch (Exception e) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Cache budget check failed: " + e.getMessage());
+            overBudget = false;
+        }
+
+        if (overBudget) {
+            android.util.Log.d("ExoPlayerSignage", "🧹 Cache over budget (" + currentSize + " / " + budgetBytes + " bytes), trimming");
+        }
+        scheduleCheck(overBudget ? LOW_STORAGE_CHECK_INTERVAL_MS : checkIntervalMs);
+    }
+
+    private long computeBudget() {
+        long available = cacheDir.getUsableSpace() + currentSize;
+        long budget = available / 100 * freeSpacePercent;
+        if (maxBytes > 0) {
+            budget = Math.min(budget, maxBytes);
+        }
+        budget = Math.max(budget, minBytes);
+        // The reserve wins over the floor: never fill the disk
+        budget = Math.min(budget, available - reserveBytes);
+        return Math.max(0, budget);
+    }
+
+    /**
+     * Evict whole keys, lowest value first, until currentSize + requiredSpace fits in limit.
+     */
+    private void evict(Cache cache, long limit, long requiredSpace) {
+        // Each key is tried once - a removal that fails (or spans already gone) must not loop forever
+        Set<String> evicted = new HashSet<>();
+        while (currentSize + requiredSpace > limit) {
+            String victim = selectVictim(evicted);
+            if (victim == null) {
+                // Only pinned content (or keys that could not be removed) left
+                android.util.Log.w("ExoPlayerSignage", "⚠️ Cache over budget but nothing evictable is left");
+                return;
+            }
+            evicted.add(victim);
+            KeyState state = keys.get(victim);
+            if (state == null) {
+                continue;
+            }
+            for (CacheSpan span : new ArrayList<>(state.spans)) {
+                cache.removeSpan(span);
+            }
+            android.util.Log.d("ExoPlayerSignage", "🧹 Evicted from cache: " + victim);
+        }
+    }
+
+    /**
+     * Key with the lowest plays per MB, not recently touched if possible, never pinned or downloaded
+     * (nor one of the excluded keys).
+     */
+    private String selectVictim(Set<String> excluded) {
+        long now = System.currentTimeMillis();
+        String victim = null;
+        boolean victimRecent = true;
+        double victimScore = Double.MAX_VALUE;
+        long victimTouchMs = Long.MAX_VALUE;
+        for (Map.Entry<String, KeyState> entry : keys.entrySet()) {
+            String key = entry.getKey();
+            KeyState state = entry.getValue();
+            if (excluded.contains(key) || pinnedKeys.contains(key) || downloadKeys.contains(key) || state.spans.isEmpty()) {
+                continue;
+            }
+            boolean recent = now - state.lastTouchMs < RECENT_TOUCH_PROTECTION_MS;
+            double score = (1 + getPlayCount(key)) / Math.max(1, state.size / BYTES_PER_MB);
+            boolean better;
+            if (recent != victimRecent) {
+                better = !recent;
+            } else if (score != victimScore) {
+                better = score < victimScore;
+            } else {
+                better = state.lastTouchMs < victimTouchMs;
+            }
+            if (victim == null || better) {
+                victim = key;
+                victimRecent = recent;
+                victimScore = score;
+                victimTouchMs = state.lastTouchMs;
+            }
+        }
+        return victim;
+    }
+
+    @Override
+    public boolean requiresCacheSpanTouches() {
+        return true;
+    }
+
+    @Override
+    public void onCacheInitialized() {
+        // Now the budget can count what is already cached; any excess is left to the background trim
+        initialized = true;
+        budgetBytes = computeBudget();
+        lastRecomputeMs = SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    public void onStartFile(Cache cache, String key, long position, long length) {
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastRecomputeMs >= MIN_RECOMPUTE_INTERVAL_MS) {
+            budgetBytes = computeBudget();
+            lastRecomputeMs = now;
+        }
+        if (length != C.LENGTH_UNSET) {
+            // Over budget: don't grow, the background trim brings the size down step by step
+            evict(cache, Math.max(budgetBytes, currentSize), length);
+        }
+    }
+
+    @Override
+    public void onSpanAdded(Cache cache, CacheSpan span) {
+        addSpan(cache, span);
+        if (initialized) {
+            evict(cache, Math.max(budgetBytes, currentSize - span.length), 0);
+        }
+    }
+
+    @Override
+    public void onSpanRemoved(Cache cache, CacheSpan span) {
+        KeyState state = keys.get(span.key);
+        if (state == null || !state.spans.remove(span)) {
+            return;
+        }
+        state.size -= span.length;
+        currentSize -= span.length;
+        if (state.spans.isEmpty()) {
+            keys.remove(span.key);
+        }
+    }
+
+    @Override
+    public void onSpanTouched(Cache cache, CacheSpan oldSpan, CacheSpan newSpan) {
+        onSpanRemoved(cache, oldSpan);
+        addSpan(cache, newSpan);
+    }
+
+    private void addSpan(Cache cache, CacheSpan span) {
+        KeyState state = keys.get(span.key);
+        if (state == null) {
+            state = new KeyState();
+            keys.put(span.key, state);
+            restoreMetadata(cache, span.key);
+        }
+        if (state.spans.add(span)) {
+            state.size += span.length;
+            currentSize += span.length;
+        }
+        state.lastTouchMs = Math.max(state.lastTouchMs, span.lastTouchTimestamp);
+    }
+}
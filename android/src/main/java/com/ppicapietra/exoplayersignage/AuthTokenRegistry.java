@@ -0,0 +1,153 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/AuthTokenRegistry.java
+package com.ppicapietra.exoplayersignage;
+
+import android.net.Uri;
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.ResolvingDataSource;
+import com.google.android.exoplayer2.util.Util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the bearer token given for each URL and adds the Authorization header to every
+ * upstream request through a ResolvingDataSource. The token of an adaptive stream (HLS/DASH/
+ * SmoothStreaming manifest) also covers its child requests - variant playlists, segments, keys -
+ * found next to or below the manifest; any other URL only gets a token registered for it. This lets
+ * authenticated media go through the same shared data source stack as unauthenticated media,
+ * instead of building new factories per call. Entries are kept in a bounded LRU and expire after a
+ * while without being registered or used.
+ */
+class AuthTokenRegistry implements ResolvingDataSource.Resolver {
+
+    static final int MAX_ENTRIES = 256;
+    static final long ENTRY_TTL_MS = 12 * 60 * 60 * 1000L;
+
+    // Token plus the time it was last registered or added to a request (a looping playlist keeps it alive)
+    private static class Entry {
+        final String token;
+        volatile long lastUsedMs;
+
+        Entry(String token, long lastUsedMs) {
+            this.token = token;
+            this.lastUsedMs = lastUsedMs;
+        }
+    }
+
+    private final Map<String, Entry> tokensByUrl = Collections.synchronizedMap(new LruMap());
+    // By directory of registered adaptive manifests ("https://host/path/"), never a whole host
+    private final Map<String, Entry> tokensByPrefix = Collections.synchronizedMap(new LruMap());
+
+    private static class LruMap extends LinkedHashMap<String, Entry> {
+        LruMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    }
+
+    /**
+     * Register the token for a URL. A null or empty token marks the URL as unauthenticated so it is
+     * requested without the header, as before.
+     */
+    void register(String url, String authToken) {
+        if (url == null) {
+            return;
+        }
+        if (authToken == null || authToken.isEmpty()) {
+            // Explicit "no token" so the directory fallback does not apply to this URL
+            tokensByUrl.put(url, new Entry(null, SystemClock.elapsedRealtime()));
+            return;
+        }
+
+        Entry entry = new Entry(authToken, SystemClock.elapsedRealtime());
+        tokensByUrl.put(url, entry);
+        // Segments and variant playlists of a stream live next to its manifest (or below) under URLs
+        // nobody registers. Progressive media has no child requests, and a manifest at the root of
+        // a host only matches its own URL, so no other content gets the token.
+        Uri uri = Uri.parse(url);
+        String prefix = isAdaptive(uri) ? getDirectoryPrefix(uri) : null;
+        if (prefix != null) {
+            tokensByPrefix.put(prefix, entry);
+        }
+    }
+
+    String getToken(Uri uri) {
+        Entry entry = tokensByUrl.get(uri.toString());
+        if (entry == null) {
+            entry = findByPrefix(uri);
+        }
+        if (entry == null || entry.token == null) {
+            return null;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (now - entry.lastUsedMs > ENTRY_TTL_MS) {
+            return null;
+        }
+        entry.lastUsedMs = now;
+        return entry.token;
+    }
+
+    void clear() {
+        tokensByUrl.clear();
+        tokensByPrefix.clear();
+    }
+
+    /**
+     * Entry of the deepest registered directory containing the URL.
+     */
+    private Entry findByPrefix(Uri uri) {
+        String prefix = getDirectoryPrefix(uri);
+        while (prefix != null) {
+            Entry entry = tokensByPrefix.get(prefix);
+            if (entry != null) {
+                return entry;
+            }
+            // Parent directory, down to (not including) the host root
+            int slash = prefix.lastIndexOf('/', prefix.length() - 2);
+            String parent = slash > 0 ? prefix.substring(0, slash + 1) : null;
+            prefix = parent != null && parent.length() > getRootLength(uri) ? parent : null;
+        }
+        return null;
+    }
+
+    private static boolean isAdaptive(Uri uri) {
+        int contentType = Util.inferContentType(uri);
+        return contentType == C.CONTENT_TYPE_HLS || contentType == C.CONTENT_TYPE_DASH || contentType == C.CONTENT_TYPE_SS;
+    }
+
+    /**
+     * "scheme://authority/dir/" of a URL (without query), or null for media at the host root.
+     */
+    private static String getDirectoryPrefix(Uri uri) {
+        String path = uri.getPath();
+        if (uri.getScheme() == null || uri.getAuthority() == null || path == null) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        if (slash <= 0) {
+            return null;
+        }
+        return uri.getScheme() + "://" + uri.getAuthority() + path.substring(0, slash + 1);
+    }
+
+    private static int getRootLength(Uri uri) {
+        return (uri.getScheme() + "://" + uri.getAuthority() + "/").length();
+    }
+
+    @Override
+    public DataSpec resolveDataSpec(DataSpec dataSpec) {
+        String token = getToken(dataSpec.uri);
+        if (token == null) {
+            return dataSpec;
+        }
+        return dataSpec.withAdditionalHeaders(Collections.singletonMap("Authorization", "Bearer " + token));
+    }
+}
@@ -0,0 +1,59 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/BandwidthThrottle.java
+package com.ppicapietra.exoplayersignage;
+
+import android.os.SystemClock;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Byte-rate limit shared by every background transfer (precache, downloads). Readers report what
+ * they read and sleep until the shared budget is paid back, so together they never exceed the rate.
+ * Bursts are limited to one second worth of bytes.
+ */
+class BandwidthThrottle {
+
+    // 0 = unlimited
+    private volatile long maxBytesPerSecond;
+
+    private long availableBytes;
+    private long lastRefillMs = SystemClock.elapsedRealtime();
+
+    void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = Math.max(0, maxBytesPerSecond);
+        synchronized (this) {
+            availableBytes = 0;
+            lastRefillMs = SystemClock.elapsedRealtime();
+        }
+    }
+
+    long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    /**
+     * Account for bytes just read, sleeping while the shared budget is overdrawn.
+     */
+    void consume(int bytes) throws InterruptedIOException {
+        long limit = maxBytesPerSecond;
+        if (limit <= 0 || bytes <= 0) {
+            return;
+        }
+
+        long waitMs;
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            availableBytes = Math.min(limit, availableBytes + (now - lastRefillMs) * limit / 1000);
+            lastRefillMs = now;
+            availableBytes -= bytes;
+            waitMs = availableBytes < 0 ? -availableBytes * 1000 / limit : 0;
+        }
+        if (waitMs > 0) {
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+}
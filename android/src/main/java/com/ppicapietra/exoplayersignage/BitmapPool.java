@@ -0,0 +1,78 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/BitmapPool.java
+package com.ppicapietra.exoplayersignage;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bitmaps no longer on screen, kept for the next image decode (BitmapFactory.Options.inBitmap)
+ * instead of allocating a new full-size bitmap per slide. Bounded by bytes; the oldest bitmaps
+ * are recycled first.
+ * Note: Thread-safe - bitmaps are returned on the UI thread and taken on the decode thread.
+ */
+class BitmapPool {
+
+    static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private final long maxBytes;
+    // Oldest first
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private long bytes;
+
+    BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * The smallest pooled bitmap with room for byteCount bytes, or null.
+     */
+    synchronized Bitmap get(int byteCount) {
+        Bitmap best = null;
+        for (Bitmap bitmap : bitmaps) {
+            int size = bitmap.getAllocationByteCount();
+            if (size >= byteCount && (best == null || size < best.getAllocationByteCount())) {
+                best = bitmap;
+            }
+        }
+        if (best != null) {
+            bitmaps.remove(best);
+            bytes -= best.getAllocationByteCount();
+        }
+        return best;
+    }
+
+    /**
+     * Return a bitmap that is no longer drawn anywhere.
+     */
+    synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || bitmaps.contains(bitmap)) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (size > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        bitmaps.add(bitmap);
+        bytes += size;
+        while (bytes > maxBytes) {
+            Bitmap oldest = bitmaps.remove(0);
+            bytes -= oldest.getAllocationByteCount();
+            oldest.recycle();
+        }
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized void clear() {
+        for (Bitmap bitmap : bitmaps) {
+            bitmap.recycle();
+        }
+        bitmaps.clear();
+        bytes = 0;
+    }
+}
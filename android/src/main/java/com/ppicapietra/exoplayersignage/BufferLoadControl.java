@@ -0,0 +1,233 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/BufferLoadControl.java
+package com.ppicapietra.exoplayersignage;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocation;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.util.Util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LoadControl of one player: buffer durations and size come from a profile that can be switched
+ * while the player is reused, memory comes from the allocator shared by all players. Loading stops
+ * at the profile's byte target or when the shared budget is full - but never before the player has
+ * enough to (re)start playback.
+ * Note: LoadControl callbacks arrive on ExoPlayer's internal thread, setProfile on the plugin's.
+ */
+class BufferLoadControl implements LoadControl {
+
+    static final class Profile {
+        final String name;
+        final int minBufferMs;
+        final int maxBufferMs;
+        final int bufferForPlaybackMs;
+        final int bufferForPlaybackAfterRebufferMs;
+        final int videoTargetBytes;
+        final int audioTargetBytes;
+
+        Profile(String name, int minBufferMs, int maxBufferMs, int bufferForPlaybackMs,
+                int bufferForPlaybackAfterRebufferMs, int videoTargetBytes, int audioTargetBytes) {
+            this.name = name;
+            this.minBufferMs = minBufferMs;
+            this.maxBufferMs = maxBufferMs;
+            this.bufferForPlaybackMs = bufferForPlaybackMs;
+            this.bufferForPlaybackAfterRebufferMs = bufferForPlaybackAfterRebufferMs;
+            this.videoTargetBytes = videoTargetBytes;
+            this.audioTargetBytes = audioTargetBytes;
+        }
+    }
+
+    private static final int MB = 1024 * 1024;
+
+    // Fully cached media: disk reads are fast, a few seconds ahead is enough
+    static final Profile LOCAL = new Profile("local", 2_500, 10_000, 1_000, 2_000, 8 * MB, MB);
+    static final Profile BALANCED = new Profile("balanced", 15_000, 30_000, 2_500, 5_000, 24 * MB, 3 * MB);
+    // Network streams: ride out bandwidth dips
+    static final Profile STREAM = new Profile("stream", 30_000, 60_000, 2_500, 5_000, 64 * MB, 6 * MB);
+
+    /**
+     * Profile for a name, or null if unknown.
+     */
+    static Profile getProfile(String name) {
+        if (LOCAL.name.equals(name)) {
+            return LOCAL;
+        }
+        if (BALANCED.name.equals(name)) {
+            return BALANCED;
+        }
+        if (STREAM.name.equals(name)) {
+            return STREAM;
+        }
+        return null;
+    }
+
+    private final BufferMemoryBudget budget;
+    private final PlayerAllocator allocator;
+
+    private volatile Profile profile = BALANCED;
+    private volatile boolean hasVideo = true;
+    private boolean isLoading;
+
+    BufferLoadControl(BufferMemoryBudget budget) {
+        this.budget = budget;
+        this.allocator = new PlayerAllocator(budget.getAllocator());
+    }
+
+    void setProfile(Profile profile) {
+        if (this.profile != profile) {
+            android.util.Log.d("ExoPlayerSignage", "🧠 Buffer profile: " + profile.name);
+            this.profile = profile;
+        }
+    }
+
+    Profile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Bytes held by this player's buffers.
+     */
+    int getBufferedBytes() {
+        return allocator.getTotalBytesAllocated();
+    }
+
+    @Override
+    public void onPrepared() {
+        isLoading = false;
+    }
+
+    @Override
+    public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, ExoTrackSelection[] trackSelections) {
+        boolean video = false;
+        for (int i = 0; i < renderers.length; i++) {
+            if (trackSelections[i] != null && renderers[i].getTrackType() == C.TRACK_TYPE_VIDEO) {
+                video = true;
+            }
+        }
+        hasVideo = video;
+    }
+
+    @Override
+    public void onStopped() {
+        isLoading = false;
+        budget.trim();
+    }
+
+    @Override
+    public void onReleased() {
+        isLoading = false;
+        budget.trim();
+    }
+
+    @Override
+    public Allocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public long getBackBufferDurationUs() {
+        return 0;
+    }
+
+    @Override
+    public boolean retainBackBufferFromKeyframe() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldContinueLoading(long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
+        Profile current = profile;
+        // Always load enough to (re)start playback, even over the shared budget
+        if (bufferedDurationUs < Util.msToUs(current.bufferForPlaybackAfterRebufferMs)) {
+            isLoading = true;
+            return true;
+        }
+
+        long maxBufferUs = Util.msToUs(current.maxBufferMs);
+        long minBufferUs = Util.msToUs(current.minBufferMs);
+        if (playbackSpeed > 1) {
+            minBufferUs = Math.min(Util.getMediaDurationForPlayoutDuration(minBufferUs, playbackSpeed), maxBufferUs);
+        }
+        boolean overBudget = isOverBudget(current);
+        if (bufferedDurationUs < minBufferUs) {
+            isLoading = !overBudget;
+        } else if (bufferedDurationUs >= maxBufferUs || overBudget) {
+            isLoading = false;
+        }
+        // Between min and max: keep loading (or not) as before
+        return isLoading;
+    }
+
+    @Override
+    public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed, boolean rebuffering, long targetLiveOffsetUs) {
+        Profile current = profile;
+        bufferedDurationUs = Util.getPlayoutDurationForMediaDuration(bufferedDurationUs, playbackSpeed);
+        long minBufferDurationUs = Util.msToUs(rebuffering ? current.bufferForPlaybackAfterRebufferMs : current.bufferForPlaybackMs);
+        if (targetLiveOffsetUs != C.TIME_UNSET) {
+            minBufferDurationUs = Math.min(targetLiveOffsetUs / 2, minBufferDurationUs);
+        }
+        // Start with what we have if no more memory is coming
+        return minBufferDurationUs <= 0 || bufferedDurationUs >= minBufferDurationUs || isOverBudget(current);
+    }
+
+    private boolean isOverBudget(Profile current) {
+        int targetBytes = hasVideo ? current.videoTargetBytes : current.audioTargetBytes;
+        return allocator.getTotalBytesAllocated() >= targetBytes || budget.isFull();
+    }
+
+    /**
+     * View of the shared allocator that counts this player's bytes.
+     */
+    private static class PlayerAllocator implements Allocator {
+
+        private final Allocator shared;
+        private final AtomicInteger allocatedBytes = new AtomicInteger();
+
+        PlayerAllocator(Allocator shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public Allocation allocate() {
+            Allocation allocation = shared.allocate();
+            allocatedBytes.addAndGet(shared.getIndividualAllocationLength());
+            return allocation;
+        }
+
+        @Override
+        public void release(Allocation allocation) {
+            allocatedBytes.addAndGet(-shared.getIndividualAllocationLength());
+            shared.release(allocation);
+        }
+
+        @Override
+        public void release(AllocationNode allocationNode) {
+            int released = 0;
+            for (AllocationNode node = allocationNode; node != null; node = node.next()) {
+                released += shared.getIndividualAllocationLength();
+            }
+            allocatedBytes.addAndGet(-released);
+            shared.release(allocationNode);
+        }
+
+        @Override
+        public void trim() {
+            shared.trim();
+        }
+
+        @Override
+        public int getTotalBytesAllocated() {
+            return allocatedBytes.get();
+        }
+
+        @Override
+        public int getIndividualAllocationLength() {
+            return shared.getIndividualAllocationLength();
+        }
+    }
+}
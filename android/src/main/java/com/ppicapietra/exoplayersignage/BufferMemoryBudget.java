@@ -0,0 +1,70 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/BufferMemoryBudget.java
+package com.ppicapietra.exoplayersignage;
+
+import android.content.Context;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+/**
+ * One allocator shared by the buffers of every player, with a cap on the bytes they may hold
+ * together. Freed segments stay pooled (up to the cap) and are reused by the next load instead of
+ * becoming garbage. Each player's BufferLoadControl stops loading once the cap is reached.
+ */
+class BufferMemoryBudget {
+
+    static final int MIN_CAP_BYTES = 16 * 1024 * 1024;
+    static final int MAX_CAP_BYTES = 192 * 1024 * 1024;
+
+    // Allocations are never trimmed on player reset - other players may still be loading
+    private final DefaultAllocator allocator = new DefaultAllocator(false, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+    private volatile int capBytes;
+
+    BufferMemoryBudget(int capBytes) {
+        setCapBytes(capBytes);
+    }
+
+    /**
+     * Default cap: a third of the app's heap limit (buffers are Java byte arrays).
+     */
+    static int getDefaultCapBytes(Context context) {
+        android.app.ActivityManager activityManager =
+                (android.app.ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMB = activityManager != null ? activityManager.getMemoryClass() : 64;
+        long capBytes = memoryClassMB * 1024L * 1024L / 3;
+        return (int) Math.max(MIN_CAP_BYTES, Math.min(MAX_CAP_BYTES, capBytes));
+    }
+
+    void setCapBytes(int capBytes) {
+        this.capBytes = Math.max(allocator.getIndividualAllocationLength(), capBytes);
+        // Free segments kept for reuse never take the total over the cap
+        allocator.setTargetBufferSize(this.capBytes);
+        android.util.Log.d("ExoPlayerSignage", "🧠 Buffer memory cap: " + (this.capBytes / (1024 * 1024)) + "MB");
+    }
+
+    int getCapBytes() {
+        return capBytes;
+    }
+
+    DefaultAllocator getAllocator() {
+        return allocator;
+    }
+
+    /**
+     * Bytes held by the buffers of all players.
+     */
+    int getTotalBytesAllocated() {
+        return allocator.getTotalBytesAllocated();
+    }
+
+    boolean isFull() {
+        return allocator.getTotalBytesAllocated() >= capBytes;
+    }
+
+    /**
+     * Release pooled segments beyond what the cap allows.
+     */
+    void trim() {
+        allocator.trim();
+    }
+}
@@ -0,0 +1,68 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/CacheStats.java
+package com.ppicapietra.exoplayersignage;
+
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit/miss byte counters of the shared cache. Hits are reported by every CacheDataSource
+ * (EventListener), misses are the bytes the shared upstream stack reads from the network
+ * (TransferListener) - for playback as well as for precache.
+ */
+class CacheStats implements CacheDataSource.EventListener, TransferListener {
+
+    private final AtomicLong hitBytes = new AtomicLong();
+    private final AtomicLong missBytes = new AtomicLong();
+    private final AtomicLong ignoredReads = new AtomicLong();
+
+    @Override
+    public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+        hitBytes.addAndGet(cachedBytesRead);
+    }
+
+    @Override
+    public void onCacheIgnored(int reason) {
+        ignoredReads.incrementAndGet();
+    }
+
+    @Override
+    public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+    }
+
+    @Override
+    public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+    }
+
+    @Override
+    public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+        if (isNetwork) {
+            missBytes.addAndGet(bytesTransferred);
+        }
+    }
+
+    @Override
+    public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+    }
+
+    long getHitBytes() {
+        return hitBytes.get();
+    }
+
+    long getMissBytes() {
+        return missBytes.get();
+    }
+
+    long getIgnoredReads() {
+        return ignoredReads.get();
+    }
+
+    void reset() {
+        hitBytes.set(0);
+        missBytes.set(0);
+        ignoredReads.set(0);
+    }
+}
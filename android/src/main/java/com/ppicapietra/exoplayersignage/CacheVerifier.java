@@ -0,0 +1,324 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/CacheVerifier.java
+package com.ppicapietra.exoplayersignage;
+
+import android.net.Uri;
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheException;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Walks the keys of the shared cache looking for broken entries: span files that are gone (Android
+ * may clear the cache dir) or shorter than indexed, holes, spans beyond the content length and,
+ * optionally, a content length that no longer matches the origin. Broken entries are removed (and
+ * re-downloaded if their URL is known). Only file metadata is read, one key at a time with a pause
+ * in between, on a background-priority thread, so it never competes with playback reads.
+ * A key is only removed if it is idle right then: not used by a player, precache or download, not
+ * locked by a writer and not read or written in the last minutes (holes and partial spans are also
+ * what media being streamed into the cache looks like).
+ */
+class CacheVerifier {
+
+    static final String REPAIR_NONE = "none";
+    static final String REPAIR_REMOVE = "remove";
+    static final String REPAIR_REFETCH = "refetch";
+
+    static final String ISSUE_MISSING_FILE = "missingFile";
+    static final String ISSUE_TRUNCATED_SPAN = "truncatedSpan";
+    static final String ISSUE_HOLE = "hole";
+    static final String ISSUE_LENGTH_MISMATCH = "lengthMismatch";
+    static final String ISSUE_ORIGIN_MISMATCH = "originMismatch";
+    static final String ISSUE_INCOMPLETE = "incomplete";
+
+    // Pause between keys
+    private static final long PER_KEY_DELAY_MS = 20;
+    // Keys read or written this recently are left alone
+    private static final long RECENT_USE_MS = 10 * 60 * 1000;
+
+    interface Callback {
+        void onComplete(Result result);
+    }
+
+    interface RefetchHandler {
+        void refetch(String url, String cacheKey);
+    }
+
+    interface UsageCheck {
+        /**
+         * Whether a player, precache or download uses the key now (called from the verifier thread).
+         */
+        boolean isInUse(String key);
+    }
+
+    static class Options {
+        String repair = REPAIR_REMOVE;
+        boolean includeIncomplete;
+        boolean checkOrigin;
+        // URL of each key, for origin checks and re-downloads
+        Map<String, String> urlsByKey = new HashMap<>();
+        // Keys in use by players or downloads when the pass started - left alone
+        Set<String> excludedKeys = new HashSet<>();
+        // Checked again right before a key is removed (null = no check)
+        UsageCheck usageCheck;
+    }
+
+    static class Issue {
+        final String key;
+        final String url;
+        final String type;
+        final boolean repaired;
+
+        Issue(String key, String url, String type, boolean repaired) {
+            this.key = key;
+            this.url = url;
+            this.type = type;
+            this.repaired = repaired;
+        }
+    }
+
+    static class Result {
+        int checkedKeys;
+        int skippedKeys;
+        int removedKeys;
+        int refetchQueued;
+        long durationMs;
+        boolean cancelled;
+        final List<Issue> issues = new ArrayList<>();
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_LOWEST);
+            runnable.run();
+        }, "ExoPlayerSignage-CacheVerify");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean running;
+    private volatile boolean cancelled;
+
+    /**
+     * Start a verification pass. Returns false if one is already running.
+     */
+    synchronized boolean start(Cache cache, Options options, DataSource.Factory upstreamFactory,
+                               RefetchHandler refetchHandler, Callback callback) {
+        if (running) {
+            return false;
+        }
+        running = true;
+        cancelled = false;
+        executor.execute(() -> {
+            Result result = new Result();
+            try {
+                run(cache, options, upstreamFactory, refetchHandler, result);
+            } finally {
+                synchronized (this) {
+                    running = false;
+                }
+                callback.onComplete(result);
+            }
+        });
+        return true;
+    }
+
+    synchronized boolean isRunning() {
+        return running;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    void shutdown() {
+        cancelled = true;
+        executor.shutdownNow();
+    }
+
+    private void run(Cache cache, Options options, DataSource.Factory upstreamFactory,
+                     RefetchHandler refetchHandler, Result result) {
+        long startMs = SystemClock.elapsedRealtime();
+        android.util.Log.d("ExoPlayerSignage", "🔍 Cache verification started");
+
+        List<String> keys;
+        try {
+            keys = new ArrayList<>(cache.getKeys());
+        } catch (Exception e) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Cache verification could not list keys: " + e.getMessage());
+            keys = Collections.emptyList();
+        }
+
+        for (String key : keys) {
+            if (cancelled) {
+                result.cancelled = true;
+                break;
+            }
+            if (options.excludedKeys.contains(key)) {
+                result.skippedKeys++;
+                continue;
+            }
+
+            String url = options.urlsByKey.get(key);
+            String issue;
+            try {
+                issue = verifyKey(cache, key, url, options.checkOrigin, upstreamFactory);
+            } catch (Exception e) {
+                // Released cache, I/O errors - try the next key
+                android.util.Log.w("ExoPlayerSignage", "⚠️ Could not verify " + key + ": " + e.getMessage());
+                result.skippedKeys++;
+                continue;
+            }
+            result.checkedKeys++;
+
+            if (issue != null) {
+                boolean repair = !REPAIR_NONE.equals(options.repair)
+                        && (!ISSUE_INCOMPLETE.equals(issue) || options.includeIncomplete);
+                boolean inUse = false;
+                if (repair) {
+                    try {
+                        inUse = !removeIfIdle(cache, key, options.usageCheck);
+                    } catch (CacheException e) {
+                        android.util.Log.w("ExoPlayerSignage", "⚠️ Could not remove " + key + ": " + e.getMessage());
+                        inUse = true;
+                    }
+                    repair = !inUse;
+                }
+                if (repair) {
+                    result.removedKeys++;
+                    if (REPAIR_REFETCH.equals(options.repair) && url != null) {
+                        refetchHandler.refetch(url, key);
+                        result.refetchQueued++;
+                    }
+                }
+                android.util.Log.w("ExoPlayerSignage", "🩹 Cache entry " + issue
+                        + (repair ? " (removed)" : inUse ? " (in use, left alone)" : "") + ": " + key);
+                result.issues.add(new Issue(key, url, issue, repair));
+            }
+
+            try {
+                Thread.sleep(PER_KEY_DELAY_MS);
+            } catch (InterruptedException e) {
+                result.cancelled = true;
+                break;
+            }
+        }
+
+        result.durationMs = SystemClock.elapsedRealtime() - startMs;
+        android.util.Log.d("ExoPlayerSignage", "🔍 Cache verification finished: " + result.checkedKeys + " keys, "
+                + result.issues.size() + " issues, " + result.durationMs + "ms");
+    }
+
+    /**
+     * Remove a key unless it is in use right now. Returns whether it was removed.
+     */
+    private boolean removeIfIdle(Cache cache, String key, UsageCheck usageCheck) throws CacheException {
+        long now = System.currentTimeMillis();
+        for (CacheSpan span : cache.getCachedSpans(key)) {
+            if (now - span.lastTouchTimestamp < RECENT_USE_MS
+                    || (span.file != null && now - span.file.lastModified() < RECENT_USE_MS)) {
+                return false;
+            }
+        }
+        if (usageCheck != null && usageCheck.isInUse(key)) {
+            return false;
+        }
+        // Writers lock the range they fill: hold the first uncached one while removing, so none can
+        // start there meanwhile (null = a writer has it)
+        long position = Math.max(0, cache.getCachedLength(key, 0, C.LENGTH_UNSET));
+        CacheSpan lock = cache.startReadWriteNonBlocking(key, position, C.LENGTH_UNSET);
+        if (lock == null) {
+            return false;
+        }
+        try {
+            cache.removeResource(key);
+        } finally {
+            if (!lock.isCached) {
+                cache.releaseHoleSpan(lock);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the issue found for a key, or null if the entry is sound.
+     */
+    private String verifyKey(Cache cache, String key, String url, boolean checkOrigin, DataSource.Factory upstreamFactory) {
+        NavigableSet<CacheSpan> spans = cache.getCachedSpans(key);
+        if (spans.isEmpty()) {
+            // Metadata only (e.g. pinned before being cached)
+            return null;
+        }
+        long contentLength = ContentMetadata.getContentLength(cache.getContentMetadata(key));
+
+        // Spans are ordered by position
+        long end = 0;
+        boolean hole = false;
+        for (CacheSpan span : spans) {
+            if (span.file == null || !span.file.exists()) {
+                return ISSUE_MISSING_FILE;
+            }
+            if (span.file.length() < span.length) {
+                return ISSUE_TRUNCATED_SPAN;
+            }
+            if (span.position > end) {
+                hole = true;
+            }
+            end = Math.max(end, span.position + span.length);
+        }
+
+        if (contentLength != C.LENGTH_UNSET && end > contentLength) {
+            return ISSUE_LENGTH_MISMATCH;
+        }
+        if (hole) {
+            return ISSUE_HOLE;
+        }
+        if (contentLength == C.LENGTH_UNSET || end < contentLength) {
+            return ISSUE_INCOMPLETE;
+        }
+        if (checkOrigin && url != null) {
+            long originLength = getOriginLength(upstreamFactory, url);
+            if (originLength != C.LENGTH_UNSET && originLength != contentLength) {
+                return ISSUE_ORIGIN_MISMATCH;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Content length reported by the origin for a HEAD request, or C.LENGTH_UNSET if unknown.
+     */
+    private long getOriginLength(DataSource.Factory upstreamFactory, String url) {
+        DataSource dataSource = upstreamFactory.createDataSource();
+        try {
+            return dataSource.open(new DataSpec.Builder()
+                    .setUri(Uri.parse(url))
+                    .setHttpMethod(DataSpec.HTTP_METHOD_HEAD)
+                    .build());
+        } catch (Exception e) {
+            // Offline or refused - nothing to compare with
+            return C.LENGTH_UNSET;
+        } finally {
+            try {
+                dataSource.close();
+            } catch (Exception e) {
+                // Ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/DecoderBudget.java
+package com.ppicapietra.exoplayersignage;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderReuseEvaluation;
+import com.google.android.exoplayer2.mediacodec.MediaCodecInfo;
+import com.google.android.exoplayer2.mediacodec.MediaCodecSelector;
+import com.google.android.exoplayer2.util.MimeTypes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Budget of hardware video decoders, per MIME type, from the MediaCodecList capabilities: how many
+ * instances the hardware decoders allow and how many pixels per second they can decode together.
+ * Every video player has a Tracker that counts the hardware decoder it holds (weighted by its
+ * resolution and frame rate). Over budget, a player either gets a software decoder ("downgrade")
+ * or is not prepared until a hardware decoder is released ("queue").
+ * Note: Tracker callbacks arrive on the playback thread, decoder selection on ExoPlayer's internal
+ * threads - all state is guarded by the budget's lock.
+ */
+class DecoderBudget {
+
+    static final String POLICY_DOWNGRADE = "downgrade";
+    static final String POLICY_QUEUE = "queue";
+    static final String POLICY_OFF = "off";
+
+    // Assumed until a player's format is known
+    private static final long DEFAULT_PIXEL_RATE = 1920L * 1080L * 30L;
+    private static final String[] VIDEO_MIME_TYPES = {
+            MimeTypes.VIDEO_H264, MimeTypes.VIDEO_H265, MimeTypes.VIDEO_VP8, MimeTypes.VIDEO_VP9, MimeTypes.VIDEO_AV1
+    };
+
+    interface Listener {
+        /**
+         * A player initialized a video decoder (hardware = counted in the budget).
+         */
+        void onDecoderInitialized(Tracker tracker, String decoderName, boolean hardware);
+
+        /**
+         * A hardware decoder (or a reservation) was released - queued players may fit now.
+         */
+        void onCapacityFreed();
+    }
+
+    /**
+     * Hardware decoding capacity for one MIME type (all hardware decoders of the type together).
+     */
+    static final class Capacity {
+        final String mimeType;
+        int decoderCount;
+        int maxInstances;
+        int maxWidth;
+        int maxHeight;
+        long maxPixelRate;
+
+        Capacity(String mimeType) {
+            this.mimeType = mimeType;
+        }
+    }
+
+    /**
+     * Hardware decoder use of one player, fed by its analytics events.
+     */
+    final class Tracker implements AnalyticsListener {
+        // MIME type of the hardware decoder held or reserved (null = none)
+        private String heldMimeType;
+        private boolean confirmed;
+        private String lastMimeType = MimeTypes.VIDEO_H264;
+        private long pixelRate = DEFAULT_PIXEL_RATE;
+        private volatile boolean downgraded;
+
+        @Override
+        public void onVideoInputFormatChanged(EventTime eventTime, Format format, DecoderReuseEvaluation decoderReuseEvaluation) {
+            synchronized (DecoderBudget.this) {
+                if (format.sampleMimeType != null) {
+                    lastMimeType = format.sampleMimeType;
+                }
+                if (format.width > 0 && format.height > 0) {
+                    float frameRate = format.frameRate > 0 ? format.frameRate : 30;
+                    pixelRate = (long) (format.width * (long) format.height * frameRate);
+                }
+            }
+        }
+
+        @Override
+        public void onVideoDecoderInitialized(EventTime eventTime, String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+            String mimeType;
+            boolean freed;
+            synchronized (DecoderBudget.this) {
+                mimeType = hardwareDecoders.get(decoderName);
+                // A reservation is dropped when the codec fell back to a software decoder, or moves
+                // when the stream turned out to be of another type
+                freed = heldMimeType != null && !heldMimeType.equals(mimeType);
+                if (mimeType != null) {
+                    heldMimeType = mimeType;
+                    confirmed = true;
+                    lastMimeType = mimeType;
+                } else {
+                    heldMimeType = null;
+                    confirmed = false;
+                }
+            }
+            listener.onDecoderInitialized(this, decoderName, mimeType != null);
+            if (freed) {
+                listener.onCapacityFreed();
+            }
+        }
+
+        @Override
+        public void onVideoDecoderReleased(EventTime eventTime, String decoderName) {
+            release();
+        }
+
+        @Override
+        public void onPlaybackStateChanged(EventTime eventTime, int state) {
+            // A reservation for a player that stopped before its decoder started
+            boolean unconfirmed;
+            synchronized (DecoderBudget.this) {
+                unconfirmed = heldMimeType != null && !confirmed;
+            }
+            if (state == Player.STATE_IDLE && unconfirmed) {
+                release();
+            }
+        }
+
+        @Override
+        public void onPlayerReleased(EventTime eventTime) {
+            release();
+            synchronized (DecoderBudget.this) {
+                trackers.remove(this);
+            }
+        }
+
+        private void release() {
+            boolean freed;
+            synchronized (DecoderBudget.this) {
+                freed = heldMimeType != null;
+                heldMimeType = null;
+                confirmed = false;
+            }
+            if (freed) {
+                listener.onCapacityFreed();
+            }
+        }
+    }
+
+    private final Map<String, Capacity> capacities = new LinkedHashMap<>();
+    // Hardware decoder name -> MIME type
+    private final Map<String, String> hardwareDecoders = new HashMap<>();
+    private final List<Tracker> trackers = new ArrayList<>();
+    private final Listener listener;
+
+    private String policy = POLICY_DOWNGRADE;
+    private int maxInstancesOverride = 0;
+
+    DecoderBudget(Listener listener) {
+        this.listener = listener;
+        scanCodecs();
+    }
+
+    /**
+     * Tracker for a new video player. It stays with the player while it is pooled and is dropped
+     * when the player is released.
+     */
+    synchronized Tracker createTracker() {
+        Tracker tracker = new Tracker();
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    synchronized void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    synchronized String getPolicy() {
+        return policy;
+    }
+
+    static boolean isValidPolicy(String policy) {
+        return POLICY_DOWNGRADE.equals(policy) || POLICY_QUEUE.equals(policy) || POLICY_OFF.equals(policy);
+    }
+
+    /**
+     * Cap on concurrent hardware decoders per MIME type below what the codecs report (0 = none).
+     */
+    synchronized void setMaxInstances(int maxInstances) {
+        this.maxInstancesOverride = Math.max(0, maxInstances);
+    }
+
+    synchronized int getMaxInstances() {
+        return maxInstancesOverride;
+    }
+
+    /**
+     * Whether the player may prepare now. With the "queue" policy and no room for the player's
+     * (expected) decoder, it must wait; otherwise a decoder is reserved for it.
+     */
+    synchronized boolean tryAdmit(Tracker tracker) {
+        if (!POLICY_QUEUE.equals(policy)) {
+            return true;
+        }
+        if (tracker.heldMimeType != null) {
+            return true;
+        }
+        if (!hasRoom(tracker, tracker.lastMimeType)) {
+            return false;
+        }
+        if (capacities.containsKey(tracker.lastMimeType)) {
+            tracker.heldMimeType = tracker.lastMimeType;
+            tracker.confirmed = false;
+        }
+        return true;
+    }
+
+    /**
+     * Decoder selection for a video player: all decoders while the budget has room for it, only
+     * software decoders otherwise (if there are any for the MIME type).
+     */
+    MediaCodecSelector createSelector(Tracker tracker) {
+        return (mimeType, requiresSecureDecoder, requiresTunnelingDecoder) -> {
+            List<MediaCodecInfo> decoders = MediaCodecSelector.DEFAULT.getDecoderInfos(mimeType, requiresSecureDecoder, requiresTunnelingDecoder);
+            if (!MimeTypes.isVideo(mimeType) || canUseHardware(tracker, mimeType)) {
+                return decoders;
+            }
+            List<MediaCodecInfo> softwareDecoders = new ArrayList<>();
+            for (MediaCodecInfo decoder : decoders) {
+                if (decoder.softwareOnly) {
+                    softwareDecoders.add(decoder);
+                }
+            }
+            if (softwareDecoders.isEmpty()) {
+                // Better to try a busy hardware decoder than to have none at all
+                return decoders;
+            }
+            if (!tracker.downgraded) {
+                tracker.downgraded = true;
+                android.util.Log.w("ExoPlayerSignage", "🎞️ Hardware decoders busy for " + mimeType + " - using a software decoder");
+            }
+            return softwareDecoders;
+        };
+    }
+
+    /**
+     * Whether the player may get a hardware decoder. If so, a slot is reserved right away (confirmed
+     * when the codec is initialized), so players prepared together cannot all take the same room.
+     * A slot reserved for the expected type (admission happens before the format is known) moves to
+     * the actual one, and players queued for the old type are told.
+     */
+    private boolean canUseHardware(Tracker tracker, String mimeType) {
+        boolean room;
+        boolean freed = false;
+        synchronized (this) {
+            if (POLICY_OFF.equals(policy) || mimeType.equals(tracker.heldMimeType)) {
+                tracker.downgraded = false;
+                return true;
+            }
+            room = hasRoom(tracker, mimeType);
+            if (room) {
+                tracker.downgraded = false;
+                freed = tracker.heldMimeType != null;
+                tracker.heldMimeType = capacities.containsKey(mimeType) ? mimeType : null;
+                tracker.confirmed = false;
+            }
+        }
+        if (freed) {
+            listener.onCapacityFreed();
+        }
+        return room;
+    }
+
+    /**
+     * Whether one more decoder of the MIME type (at the tracker's pixel rate) fits the budget.
+     */
+    private boolean hasRoom(Tracker tracker, String mimeType) {
+        Capacity capacity = capacities.get(mimeType);
+        if (capacity == null) {
+            // Not a type we know hardware decoders for - nothing to count
+            return true;
+        }
+        int instances = 0;
+        long pixelRate = 0;
+        for (Tracker other : trackers) {
+            if (other != tracker && mimeType.equals(other.heldMimeType)) {
+                instances++;
+                pixelRate += other.pixelRate;
+            }
+        }
+        int maxInstances = maxInstancesOverride > 0
+                ? Math.min(maxInstancesOverride, capacity.maxInstances)
+                : capacity.maxInstances;
+        return instances < maxInstances && (pixelRate == 0 || pixelRate + tracker.pixelRate <= capacity.maxPixelRate);
+    }
+
+    /**
+     * Capacities and current use, per MIME type.
+     */
+    synchronized JSArray toJSArray() {
+        JSArray codecs = new JSArray();
+        for (Capacity capacity : capacities.values()) {
+            int instances = 0;
+            long pixelRate = 0;
+            for (Tracker tracker : trackers) {
+                if (capacity.mimeType.equals(tracker.heldMimeType)) {
+                    instances++;
+                    pixelRate += tracker.pixelRate;
+                }
+            }
+            JSObject codec = new JSObject();
+            codec.put("mimeType", capacity.mimeType);
+            codec.put("decoderCount", capacity.decoderCount);
+            codec.put("maxInstances", maxInstancesOverride > 0
+                    ? Math.min(maxInstancesOverride, capacity.maxInstances)
+                    : capacity.maxInstances);
+            codec.put("maxWidth", capacity.maxWidth);
+            codec.put("maxHeight", capacity.maxHeight);
+            codec.put("maxPixelRate", capacity.maxPixelRate);
+            codec.put("usedInstances", instances);
+            codec.put("usedPixelRate", pixelRate);
+            codecs.put(codec);
+        }
+        return codecs;
+    }
+
+    private void scanCodecs() {
+        android.media.MediaCodecInfo[] codecInfos;
+        try {
+            codecInfos = new android.media.MediaCodecList(android.media.MediaCodecList.REGULAR_CODECS).getCodecInfos();
+        } catch (RuntimeException e) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Could not read codec list: " + e.getMessage());
+            return;
+        }
+        for (android.media.MediaCodecInfo info : codecInfos) {
+            if (info.isEncoder() || !isHardware(info)) {
+                continue;
+            }
+            for (String type : info.getSupportedTypes()) {
+                String mimeType = getVideoMimeType(type);
+                if (mimeType == null) {
+                    continue;
+                }
+                try {
+                    addDecoder(mimeType, info.getName(), info.getCapabilitiesForType(type));
+                } catch (RuntimeException e) {
+                    android.util.Log.w("ExoPlayerSignage", "⚠️ Could not read capabilities of " + info.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        for (Capacity capacity : capacities.values()) {
+            android.util.Log.d("ExoPlayerSignage", "🎞️ Hardware " + capacity.mimeType + ": " + capacity.maxInstances + " instances, "
+                    + capacity.maxWidth + "x" + capacity.maxHeight + ", " + (capacity.maxPixelRate / 1_000_000) + " Mpx/s");
+        }
+    }
+
+    private void addDecoder(String mimeType, String name, android.media.MediaCodecInfo.CodecCapabilities codecCapabilities) {
+        android.media.MediaCodecInfo.VideoCapabilities video = codecCapabilities.getVideoCapabilities();
+        if (video == null) {
+            return;
+        }
+        Capacity capacity = capacities.get(mimeType);
+        if (capacity == null) {
+            capacity = new Capacity(mimeType);
+            capacities.put(mimeType, capacity);
+        }
+        // Several hardware decoders of one type (e.g. secure variants) share the same hardware:
+        // the best of them is the limit, not the sum
+        capacity.decoderCount++;
+        capacity.maxInstances = Math.max(capacity.maxInstances, codecCapabilities.getMaxSupportedInstances());
+        capacity.maxWidth = Math.max(capacity.maxWidth, video.getSupportedWidths().getUpper());
+        capacity.maxHeight = Math.max(capacity.maxHeight, video.getSupportedHeights().getUpper());
+        long blockPixels = (long) video.getBlockSize().getWidth() * video.getBlockSize().getHeight();
+        capacity.maxPixelRate = Math.max(capacity.maxPixelRate, video.getBlocksPerSecondRange().getUpper() * blockPixels);
+        hardwareDecoders.put(name, mimeType);
+    }
+
+    private static String getVideoMimeType(String type) {
+        for (String mimeType : VIDEO_MIME_TYPES) {
+            if (mimeType.equalsIgnoreCase(type)) {
+                return mimeType;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHardware(android.media.MediaCodecInfo info) {
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.Q) {
+            return info.isHardwareAccelerated() && !info.isAlias();
+        }
+        String name = info.getName().toLowerCase(java.util.Locale.ROOT);
+        return !name.startsWith("omx.google.") && !name.startsWith("c2.android.") && !name.contains(".sw.");
+    }
+}
@@ -1,6 +1,7 @@
 // android/src/main/java/com/ppicapietra/exoplayersignage/ExoPlayerSignagePlugin.java
 package com.ppicapietra.exoplayersignage;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -13,47 +14,237 @@ import android.view.SurfaceView;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
+import com.google.android.exoplayer2.DefaultRenderersFactory;
 import com.google.android.exoplayer2.ExoPlayer;
 import com.google.android.exoplayer2.MediaItem;
 import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.audio.AudioAttributes;
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadHelper;
+import com.google.android.exoplayer2.offline.DownloadRequest;
 import com.google.android.exoplayer2.source.DefaultMediaSourceFactory;
 import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
+import com.google.android.exoplayer2.trackselection.TrackSelectionParameters;
 import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
-import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
 import com.google.android.exoplayer2.upstream.cache.SimpleCache;
 import com.google.android.exoplayer2.database.StandaloneDatabaseProvider;
 import com.google.android.exoplayer2.upstream.DefaultHttpDataSource;
+import com.google.android.exoplayer2.upstream.ResolvingDataSource;
 import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.PriorityTaskManager;
 
 import java.io.File;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @CapacitorPlugin(name = "ExoPlayerSignage")
 public class ExoPlayerSignagePlugin extends Plugin {
 
+    // Max time surfaceDestroyed() waits for the playback thread to detach the Surface
+    private static final long SURFACE_RELEASE_TIMEOUT_MS = 500;
+    // How long the cache verifier waits for the playback thread to say whether a key is in use
+    private static final long KEY_IN_USE_TIMEOUT_MS = 1000;
+
     // Shared cache for all players
-    private SimpleCache cache;
-    private CacheDataSource.Factory cacheDataSourceFactory;
+    // (opened in the background - see openCacheAsync())
+    private volatile SimpleCache cache;
+    private volatile CacheDataSource.Factory cacheDataSourceFactory;
+    
+    // Cache opening state and the calls waiting for it
+    private final List<PendingCommand> pendingCacheCommands = new ArrayList<>();
+    private boolean cacheOpened; // guarded by pendingCacheCommands
+    private volatile String cacheOpenError;
+    private volatile long cacheOpenDurationMs = -1;
+    private volatile boolean destroyed;
+    
+    // Upstream (HTTP) stack shared by every CacheDataSource factory
+    private ResolvingDataSource.Factory upstreamDataSourceFactory;
+    
+    // LRU evictor whose budget follows the free disk space
+    private AdaptiveCacheEvictor cacheEvictor;
+    
+    // Hit/miss byte counters of the shared cache
+    private final CacheStats cacheStats = new CacheStats();
+    
+    // Players register playback priority while loading; background transfers (precache, downloads)
+    // pause until no player is loading, and are capped by backgroundThrottle
+    private final PriorityTaskManager priorityTaskManager = new PriorityTaskManager();
+    private final BandwidthThrottle backgroundThrottle = new BandwidthThrottle();
+    private volatile CacheDataSource.Factory backgroundCacheDataSourceFactory;
+    
+    // Image slides are read through the cache and decoded off the UI thread into pooled bitmaps
+    private volatile ImageSlideLoader imageSlideLoader;
+    
+    // How playback uses the network: "network" (default), "offlineFirst" (fully cached media is read
+    // from the cache only) or "cacheOnly" (media that is not fully cached is not played at all)
+    private volatile String cacheMode = "network";
+    
+    // Cache keys that ignore the signature/expiry query parameters of signed URLs
+    private final UrlCacheKeyFactory cacheKeyFactory = new UrlCacheKeyFactory();
+    
+    // Bearer tokens per URL/host, injected into upstream requests of the shared data source stack
+    private final AuthTokenRegistry authTokenRegistry = new AuthTokenRegistry();
+    
+    // Background downloads that fill the shared cache ahead of playback
+    private PrecacheManager precacheManager;
+    
+    // Background check (and repair) of broken cache entries
+    private CacheVerifier cacheVerifier;
+    
+    // Database shared by the cache index and the download index
+    private StandaloneDatabaseProvider databaseProvider;
+    
+    // Whole-stream offline downloads (HLS/DASH) into the shared cache, created on the playback
+    // thread once the cache is open
+    private volatile OfflineDownloadManager offlineDownloads;
+    
+    // Warm, reset ExoPlayer instances leased by createPlayer and returned by releasePlayer
+    private PlayerPool playerPool;
+    
+    // Allocator shared by the buffers of all players, capped so their total memory is bounded
+    private BufferMemoryBudget bufferBudget;
     
-    // Map to store player instances by ID
-    private Map<String, PlayerInstance> players = new HashMap<>();
+    // LoadControl of each built player, so its buffer profile can be set when it is leased
+    // (only touched on the playback thread)
+    private final Map<ExoPlayer, BufferLoadControl> loadControls = new WeakHashMap<>();
+    
+    // Hardware video decoders per MIME type, and what each video player holds. Created on the playback
+    // thread (the codec scan takes a while); players waiting for a decoder with the "queue" policy
+    // are only touched there
+    private volatile DecoderBudget decoderBudget;
+    private final Map<ExoPlayer, DecoderBudget.Tracker> decoderTrackers = new WeakHashMap<>();
+    private final List<PlayerInstance> decoderQueue = new ArrayList<>();
+    
+    // Map to store player instances by ID (read from the bridge, playback and UI threads)
+    private Map<String, PlayerInstance> players = new ConcurrentHashMap<>();
+    
+    // Dedicated thread all ExoPlayer instances live on, so player work never competes with the
+    // WebView on the main thread. Only SurfaceView attach/visibility work stays on the UI thread.
+    private android.os.HandlerThread playbackThread;
+    private android.os.Handler playbackHandler;
     
     // Shared SurfaceView for video playback - added directly to rootView at index 0
     // This ensures videos stay below the WebView (which contains the modal HTML)
     private SurfaceView videoSurfaceView;
     
-    // Pending player to associate with SurfaceView when SurfaceHolder is ready
-    private ExoPlayer pendingPlayer;
+    // Which player renders into the shared SurfaceView's Surface (playback thread only)
+    private final SurfaceArbiter surfaceArbiter = new SurfaceArbiter("Shared");
+    
+    // Size of the video Surface (0 = not created yet, the display size is used instead)
+    private volatile int surfaceWidth = 0;
+    private volatile int surfaceHeight = 0;
+    
+    // Track selection: skip renditions larger than the surface, optionally also any the decoder
+    // can't handle (even if nothing else is left)
+    private volatile boolean limitVideoToSurface = true;
+    private volatile boolean respectDecoderCapabilities = false;
+    
+    // State, buffering, error and position events of all players, coalesced into playerEvents
+    // batches (only touched on the playback thread)
+    private PlayerEventBatcher eventBatcher;
+    private boolean positionEventsEnabled = true;
+    
+    // Periodic playbackStats event (0 = disabled)
+    private long playbackStatsIntervalMs = 0;
+    private final Runnable playbackStatsRunnable = this::emitPlaybackStats;
+    
+    // A plugin call that needs the cache, queued until it is open
+    private static class PendingCommand {
+        final PluginCall call;
+        final Runnable command;
+        
+        PendingCommand(PluginCall call, Runnable command) {
+            this.call = call;
+            this.command = command;
+        }
+    }
+    
+    // A player operation that failed with a reject code (e.g. NOT_CACHED)
+    private static class CommandException extends Exception {
+        final String code;
+        
+        CommandException(String message, String code) {
+            super(message);
+            this.code = code;
+        }
+    }
+    
+    // Position of a video zone in WebView (CSS) pixels
+    private static class VideoBounds {
+        final double x;
+        final double y;
+        final double width;
+        final double height;
+        final int zIndex;
+        
+        VideoBounds(double x, double y, double width, double height, int zIndex) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.zIndex = zIndex;
+        }
+    }
+    
+    // One validated command of executeBatch
+    private static class BatchCommand {
+        final String op;
+        final PlayerInstance instance;
+        final org.json.JSONObject options;
+        
+        BatchCommand(String op, PlayerInstance instance, org.json.JSONObject options) {
+            this.op = op;
+            this.instance = instance;
+            this.options = options;
+        }
+    }
     
     // Helper class to manage a single player instance
     private static class PlayerInstance {
         ExoPlayer player;
-        SurfaceView surfaceView; // SurfaceView for video playback
+        volatile SurfaceView surfaceView; // SurfaceView for video playback
+        volatile VideoZone zone; // Own positioned SurfaceView (bounds), null = the shared full-screen one
         String type; // "video" or "audio"
         String id;
+        boolean playlistMode; // true while playing a native playlist (playPlaylist)
+        
+        // Media prepared by preload() and waiting for play()/show()
+        String preloadedUrl;
+        PluginCall preloadCall;
+        Player.Listener preloadListener;
+        
+        // Listeners added by the plugin - removed before the player goes back to the pool
+        final List<Player.Listener> listeners = new ArrayList<>();
+        
+        // Playback metrics, also fed by this player's own CacheDataSource (cache vs network bytes)
+        final PlaybackStatsCollector stats = new PlaybackStatsCollector();
+        MediaSource.Factory mediaSourceFactory;
+        MediaSource.Factory cacheOnlyMediaSourceFactory; // fully cached media, never opens the network
+        
+        // Buffer sizes: "auto" picks "local" or "stream" for the media being set
+        BufferLoadControl loadControl;
+        String bufferProfile = "auto";
+        
+        // Native day-parted schedule (setSchedule), run on the playback thread
+        ScheduleEngine schedule;
+        
+        // Hardware decoder use of a video player (decoder budget)
+        DecoderBudget.Tracker decoderTracker;
+        
+        // Image slides drawn over the video (UI thread), created with the first image item
+        volatile ImageSlideView imageSlides;
         
         PlayerInstance(ExoPlayer player, SurfaceView surfaceView, String type, String id) {
             this.player = player;
@@ -121,35 +312,39 @@ public class ExoPlayerSignagePlugin extends Plugin {
                 android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView dimensions: " + 
                     videoSurfaceView.getWidth() + "x" + videoSurfaceView.getHeight());
                 android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView isShown: " + videoSurfaceView.isShown());
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: pendingPlayer is " + (pendingPlayer != null ? "NOT null" : "null"));
                 
-                // If there's a pending player, associate it now
-                if (pendingPlayer != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🎬 Associating pending player with SurfaceView");
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state BEFORE association: " + 
-                        getPlaybackStateString(pendingPlayer.getPlaybackState()));
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player isPlaying BEFORE: " + pendingPlayer.isPlaying());
-                    
-                    pendingPlayer.setVideoSurfaceView(videoSurfaceView);
-                    
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state AFTER association: " + 
-                        getPlaybackStateString(pendingPlayer.getPlaybackState()));
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player isPlaying AFTER: " + pendingPlayer.isPlaying());
-                    
+                // The player that requested the Surface most recently (if any) gets it now
+                android.view.Surface surface = holder.getSurface();
+                runOnPlaybackThread(() -> {
+                    surfaceArbiter.onSurfaceCreated(surface);
+                    if (surfaceArbiter.getOwner() == null) {
+                        android.util.Log.d("ExoPlayerSignage", "⚠️ DEBUG: No pending player to associate");
+                        return;
+                    }
                     // Ensure SurfaceView is visible when player is associated
-                    videoSurfaceView.setVisibility(android.view.View.VISIBLE);
-                    android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility set to VISIBLE (player associated)");
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView isShown after setting VISIBLE: " + videoSurfaceView.isShown());
-                    
-                    pendingPlayer = null; // Clear pending player
-                } else {
-                    android.util.Log.d("ExoPlayerSignage", "⚠️ DEBUG: No pending player to associate");
-                }
+                    runOnUiThread(() -> {
+                        videoSurfaceView.setVisibility(android.view.View.VISIBLE);
+                        android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility set to VISIBLE (player associated)");
+                    });
+                });
             }
             
             @Override
             public void surfaceChanged(android.view.SurfaceHolder holder, int format, int width, int height) {
                 android.util.Log.d("ExoPlayerSignage", "SurfaceHolder changed: " + width + "x" + height);
+                
+                // Renditions above the new size are wasted decoding work
+                if (width != surfaceWidth || height != surfaceHeight) {
+                    surfaceWidth = width;
+                    surfaceHeight = height;
+                    runOnPlaybackThread(() -> {
+                        for (PlayerInstance instance : players.values()) {
+                            if ("video".equals(instance.type) && instance.zone == null) {
+                                applyTrackSelectionConstraints(instance);
+                            }
+                        }
+                    });
+                }
                 android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceHolder format: " + format);
                 android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView dimensions: " + 
                     videoSurfaceView.getWidth() + "x" + videoSurfaceView.getHeight());
@@ -161,47 +356,53 @@ public class ExoPlayerSignagePlugin extends Plugin {
                     (videoSurfaceView.getParent() != null ? videoSurfaceView.getParent().getClass().getName() : "null"));
                 
                 // Ensure SurfaceView is visible if there's a player associated with it
-                // Check if any video player is currently playing
-                boolean foundPlayer = false;
-                for (PlayerInstance instance : players.values()) {
-                    if ("video".equals(instance.type) && instance.surfaceView == videoSurfaceView) {
-                        foundPlayer = true;
-                        ExoPlayer player = instance.player;
-                        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Found video player instance: " + instance.id);
-                        if (player != null) {
-                            android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state: " + getPlaybackStateString(player.getPlaybackState()));
-                            android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player isPlaying: " + player.isPlaying());
-                            android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player currentPosition: " + player.getCurrentPosition() + "ms");
-                            android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player duration: " + player.getDuration() + "ms");
-                            
-                            if (player.getPlaybackState() != Player.STATE_IDLE && 
-                                player.getPlaybackState() != Player.STATE_ENDED) {
-                                // Player is playing or buffering - ensure SurfaceView is visible
-                                if (videoSurfaceView.getVisibility() != android.view.View.VISIBLE) {
-                                    videoSurfaceView.setVisibility(android.view.View.VISIBLE);
-                                    android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility set to VISIBLE (player is playing)");
+                // Player state can only be read on the playback thread
+                runOnPlaybackThread(() -> {
+                    boolean foundPlayer = false;
+                    for (PlayerInstance instance : players.values()) {
+                        if ("video".equals(instance.type) && instance.surfaceView == videoSurfaceView) {
+                            foundPlayer = true;
+                            ExoPlayer player = instance.player;
+                            android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Found video player instance: " + instance.id);
+                            if (player != null) {
+                                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state: " + getPlaybackStateString(player.getPlaybackState()));
+                                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player isPlaying: " + player.isPlaying());
+                                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player currentPosition: " + player.getCurrentPosition() + "ms");
+                                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player duration: " + player.getDuration() + "ms");
+                                
+                                if (player.getPlaybackState() != Player.STATE_IDLE && 
+                                    player.getPlaybackState() != Player.STATE_ENDED) {
+                                    // Player is playing or buffering - ensure SurfaceView is visible
+                                    runOnUiThread(() -> {
+                                        if (videoSurfaceView.getVisibility() != android.view.View.VISIBLE) {
+                                            videoSurfaceView.setVisibility(android.view.View.VISIBLE);
+                                            android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility set to VISIBLE (player is playing)");
+                                        } else {
+                                            android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView already VISIBLE");
+                                        }
+                                    });
                                 } else {
-                                    android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView already VISIBLE");
+                                    android.util.Log.d("ExoPlayerSignage", "⚠️ DEBUG: Player is IDLE or ENDED, not ensuring visibility");
                                 }
                             } else {
-                                android.util.Log.d("ExoPlayerSignage", "⚠️ DEBUG: Player is IDLE or ENDED, not ensuring visibility");
+                                android.util.Log.w("ExoPlayerSignage", "⚠️ DEBUG: Player instance has null player!");
                             }
-                        } else {
-                            android.util.Log.w("ExoPlayerSignage", "⚠️ DEBUG: Player instance has null player!");
+                            break;
                         }
-                        break;
                     }
-                }
-                if (!foundPlayer) {
-                    android.util.Log.w("ExoPlayerSignage", "⚠️ DEBUG: No video player instance found for this SurfaceView!");
-                }
+                    if (!foundPlayer) {
+                        android.util.Log.w("ExoPlayerSignage", "⚠️ DEBUG: No video player instance found for this SurfaceView!");
+                    }
+                });
             }
             
             @Override
             public void surfaceDestroyed(android.view.SurfaceHolder holder) {
                 android.util.Log.d("ExoPlayerSignage", "⚠️ SurfaceHolder destroyed");
-                // Clear any pending player association
-                pendingPlayer = null;
+                // The renderer must stop using the Surface before this callback returns. Requests
+                // stay queued, the same player is re-attached when the Surface is created again.
+                android.view.Surface surface = holder.getSurface();
+                runOnPlaybackThreadAndWait(() -> surfaceArbiter.onSurfaceDestroyed(surface), SURFACE_RELEASE_TIMEOUT_MS);
             }
         });
         
@@ -433,397 +634,2152 @@ public class ExoPlayerSignagePlugin extends Plugin {
     }
     
 
-    private long getSafeCacheSize() {
-        File cacheDir = getContext().getCacheDir();
-        long available = cacheDir.getUsableSpace();
-        long target = (long) (available * 0.6);
-        return Math.max(target, 2L * 1024 * 1024 * 1024); // mínimo 2 GB
-    }
-
-    @Override
-    public void load() {
-        File cacheDir = new File(getContext().getCacheDir(), "exoplayer");
-
-        cache = new SimpleCache(
-                cacheDir,
-                new LeastRecentlyUsedCacheEvictor(getSafeCacheSize()),
-                new StandaloneDatabaseProvider(getContext()));
-
-        // Create HttpDataSourceFactory that can accept custom headers
-        DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory();
-        httpDataSourceFactory.setUserAgent("ExoPlayerSignage");
-        httpDataSourceFactory.setConnectTimeoutMs(DefaultHttpDataSource.DEFAULT_CONNECT_TIMEOUT_MILLIS);
-        httpDataSourceFactory.setReadTimeoutMs(DefaultHttpDataSource.DEFAULT_READ_TIMEOUT_MILLIS);
-        httpDataSourceFactory.setAllowCrossProtocolRedirects(true);
+    /**
+     * Ensure the video player has the shared SurfaceView, request its Surface (taken over from the
+     * current owner, or attached when surfaceCreated() is called) and make it visible.
+     * Note: This method should only be called from the UI thread (runOnUiThread).
+     */
+    private void attachVideoSurface(PlayerInstance instance) {
+        if (instance.imageSlides != null) {
+            instance.imageSlides.setVisible(true);
+        }
         
-        cacheDataSourceFactory = new CacheDataSource.Factory()
-                .setCache(cache)
-                .setUpstreamDataSourceFactory(httpDataSourceFactory)
-                .setFlags(CacheDataSource.FLAG_BLOCK_ON_CACHE | CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
-    }
-
-    @PluginMethod
-    public void createPlayer(PluginCall call) {
-        String type = call.getString("type", "video");
-        if (!"video".equals(type) && !"audio".equals(type)) {
-            call.reject("Invalid type. Must be 'video' or 'audio'");
+        // Players with bounds render into their own zone
+        VideoZone zone = instance.zone;
+        if (zone != null) {
+            instance.surfaceView = zone.getView();
+            zone.bind(instance.player);
             return;
         }
         
-        // Get initial volume (optional, defaults based on type)
-        Double volumeValue = call.getDouble("volume", null);
-        float initialVolume;
-        if (volumeValue != null) {
-            initialVolume = volumeValue.floatValue();
-        } else {
-            // Default volumes: 0.0 for video, 1.0 for audio
-            initialVolume = "audio".equals(type) ? 1.0f : 0.0f;
+        // Slides of another player on the shared SurfaceView would cover this one
+        for (PlayerInstance other : players.values()) {
+            if (other != instance && other.zone == null && other.imageSlides != null) {
+                other.imageSlides.setVisible(false);
+            }
         }
         
-        // Get z-index (optional, null = use bringToFront() by default)
-        Double zIndexValue = call.getDouble("zIndex", null);
-        Float zIndex = zIndexValue != null ? zIndexValue.floatValue() : null;
-        
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
+        if (instance.surfaceView == null) {
+            instance.surfaceView = getOrCreateVideoSurfaceView();
+        }
+        if (instance.surfaceView == null) {
+            android.util.Log.e("ExoPlayerSignage", "❌ ERROR: Could not create SurfaceView for player " + instance.id);
             return;
         }
         
-        activity.runOnUiThread(() -> {
-            try {
-                String playerId = UUID.randomUUID().toString();
-                ExoPlayer player = new ExoPlayer.Builder(getContext())
-                        .setMediaSourceFactory(
-                                new DefaultMediaSourceFactory(getContext())
-                                        .setDataSourceFactory(cacheDataSourceFactory))
-                        .build();
-                
-                SurfaceView surfaceView = null;
-                
-                if ("video".equals(type)) {
-                    // Get or create shared SurfaceView for video playback
-                    surfaceView = getOrCreateVideoSurfaceView();
-                    
-                    // Configure AudioAttributes for video
-                    AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                            .setUsage(C.USAGE_MEDIA)
-                            .setContentType(C.CONTENT_TYPE_MOVIE)
-                            .build();
-                    player.setAudioAttributes(audioAttributes, false);
-                } else {
-                    // Audio player - no SurfaceView needed
-                    // Configure AudioAttributes for audio
-                    AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                            .setUsage(C.USAGE_MEDIA)
-                            .setContentType(C.CONTENT_TYPE_MUSIC)
-                            .build();
-                    player.setAudioAttributes(audioAttributes, false);
-                    
-                    // Add listener for audio playback ended
-                    player.addListener(new Player.Listener() {
-                        @Override
-                        public void onPlaybackStateChanged(int playbackState) {
-                            if (playbackState == Player.STATE_ENDED) {
-                                JSObject data = new JSObject();
-                                data.put("playerId", playerId);
-                                notifyListeners("audioPlaybackEnded", data);
-                            }
-                        }
-                    });
-                }
-                
-                // Set initial volume (configurable from tv_app)
-                player.setVolume(initialVolume);
-                
-                player.setPlayWhenReady(true);
-                player.setRepeatMode(ExoPlayer.REPEAT_MODE_OFF);
-                
-                // Store player instance
-                PlayerInstance instance = new PlayerInstance(player, surfaceView, type, playerId);
-                players.put(playerId, instance);
-                
-                JSObject result = new JSObject();
-                result.put("playerId", playerId);
-                call.resolve(result);
-            } catch (Exception e) {
-                call.reject("Error creating player: " + e.getMessage(), e);
+        android.util.Log.d("ExoPlayerSignage", "✅ Requesting video surface for player " + instance.id);
+        ExoPlayer player = instance.player;
+        runOnPlaybackThread(() -> {
+            // The player may have been released (or pooled) in the meantime
+            if (players.get(instance.id) == instance) {
+                surfaceArbiter.request(player);
             }
         });
+        
+        instance.surfaceView.setVisibility(android.view.View.VISIBLE);
     }
 
-    @PluginMethod
-    public void play(PluginCall call) {
-        String playerId = call.getString("playerId");
-        String url = call.getString("url");
-        
-        if (playerId == null) {
-            call.reject("playerId requerido");
+    /**
+     * Give the player its own positioned SurfaceView (or move it), converting the bounds from WebView
+     * to window pixels. A player that was rendering into the shared SurfaceView moves to the zone.
+     * Note: This method should only be called from the UI thread (runOnUiThread).
+     */
+    private void applyVideoBounds(PlayerInstance instance, VideoBounds bounds) {
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null || players.get(instance.id) != instance) {
             return;
         }
+        ViewGroup decorView = (ViewGroup) activity.getWindow().getDecorView();
         
-        if (url == null) {
-            call.reject("URL requerida");
-            return;
+        float density = getContext().getResources().getDisplayMetrics().density;
+        int[] webViewLocation = new int[2];
+        android.view.View webView = getBridge().getWebView();
+        if (webView != null) {
+            webView.getLocationInWindow(webViewLocation);
         }
+        int left = webViewLocation[0] + Math.round((float) bounds.x * density);
+        int top = webViewLocation[1] + Math.round((float) bounds.y * density);
+        int width = Math.max(1, Math.round((float) bounds.width * density));
+        int height = Math.max(1, Math.round((float) bounds.height * density));
         
-        PlayerInstance instance = players.get(playerId);
-        if (instance == null) {
-            call.reject("Player not found: " + playerId);
+        VideoZone zone = instance.zone;
+        if (zone != null) {
+            zone.setBounds(decorView, left, top, width, height, bounds.zIndex);
+            instance.surfaceView = zone.getView();
+            if (instance.imageSlides != null) {
+                instance.imageSlides.attach(instance.surfaceView);
+            }
             return;
         }
         
-        // Visibility is controlled by the app, not by the plugin
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
-            return;
+        zone = new VideoZone(getContext(), createVideoZoneHost());
+        zone.setBounds(decorView, left, top, width, height, bounds.zIndex);
+        if (webView != null) {
+            // The zone shows through the WebView like the shared SurfaceView
+            webView.setBackgroundColor(android.graphics.Color.TRANSPARENT);
+        }
+        instance.zone = zone;
+        instance.surfaceView = zone.getView();
+        if (instance.imageSlides != null) {
+            instance.imageSlides.attach(instance.surfaceView);
         }
         
-        activity.runOnUiThread(() -> {
-            try {
-                ExoPlayer player = instance.player;
-                
-                // Stop any current playback before setting new media item
-                if (player.getPlaybackState() != Player.STATE_IDLE) {
-                    player.stop();
-                }
-                
-                if ("video".equals(instance.type)) {
-                    // Video playback - ensure SurfaceView exists and is associated
-                    // Visibility is controlled by the app, not by the plugin
-                    if (instance.surfaceView == null) {
-                        instance.surfaceView = getOrCreateVideoSurfaceView();
-                    }
-                    
-                    // Associate SurfaceView with player AFTER MediaItem is set but BEFORE prepare()
-                    // This ensures the SurfaceView is ready when the player prepares
-                } else {
-                    // Audio playback - ensure NO SurfaceView is associated
-                    // Audio players should NEVER have a SurfaceView
-                    if (instance.surfaceView != null) {
-                        try {
-                            player.clearVideoSurface();
-                        } catch (Exception e) {
-                            // Ignore errors
-                        }
-                        // Don't modify visibility - that's controlled by the app
-                    }
-                }
-                
-                // Get auth token from call if provided
-                String authToken = call.getString("authToken");
-                
-                // Create MediaItem
-                MediaItem mediaItem = MediaItem.fromUri(Uri.parse(url));
-                
-                // If auth token is provided, create a new MediaSourceFactory with auth headers
-                if (authToken != null && !authToken.isEmpty()) {
-                    // Create HttpDataSourceFactory with auth header
-                    DefaultHttpDataSource.Factory httpFactory = new DefaultHttpDataSource.Factory();
-                    httpFactory.setUserAgent("ExoPlayerSignage");
-                    httpFactory.setConnectTimeoutMs(DefaultHttpDataSource.DEFAULT_CONNECT_TIMEOUT_MILLIS);
-                    httpFactory.setReadTimeoutMs(DefaultHttpDataSource.DEFAULT_READ_TIMEOUT_MILLIS);
-                    httpFactory.setAllowCrossProtocolRedirects(true);
-                    java.util.Map<String, String> headers = new java.util.HashMap<>();
-                    headers.put("Authorization", "Bearer " + authToken);
-                    httpFactory.setDefaultRequestProperties(headers);
-                    
-                    // Create CacheDataSourceFactory with auth
-                    CacheDataSource.Factory authCacheFactory = new CacheDataSource.Factory()
-                            .setCache(cache)
-                            .setUpstreamDataSourceFactory(httpFactory)
-                            .setFlags(CacheDataSource.FLAG_BLOCK_ON_CACHE | CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
-                    
-                    // Create MediaSourceFactory with auth and apply to player
-                    DefaultMediaSourceFactory mediaSourceFactory = new DefaultMediaSourceFactory(getContext())
-                            .setDataSourceFactory(authCacheFactory);
-                    
-                    // Replace player's MediaSourceFactory temporarily
-                    // Note: This requires storing the original factory to restore later
-                    // For now, we'll create a new player with the auth factory if needed
-                    // Actually, we can use the MediaItem.Builder to set custom data source
-                    // But ExoPlayer 2.x doesn't support this directly
-                    // Workaround: Create a new MediaSource with custom factory
-                    com.google.android.exoplayer2.source.MediaSource mediaSource = 
-                            mediaSourceFactory.createMediaSource(mediaItem);
-                    player.setMediaSource(mediaSource);
-                } else {
-                    // Use default cache factory (no auth)
-                    player.setMediaItem(mediaItem);
+        // A player rendering into the shared SurfaceView moves to the zone (the Surface goes back to
+        // the previous requester, if any)
+        ExoPlayer player = instance.player;
+        VideoZone newZone = zone;
+        runOnPlaybackThread(() -> {
+            if (!surfaceArbiter.isRequested(player)) {
+                return;
+            }
+            clearPlayerSurface(player);
+            runOnUiThread(() -> {
+                if (instance.zone == newZone) {
+                    attachVideoSurface(instance);
                 }
-                
-                // For video players, associate SurfaceView AFTER MediaItem is set but BEFORE prepare()
-                // Wait for SurfaceHolder to be ready before associating
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🎬 Preparing to associate SurfaceView with player");
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state BEFORE association: " + getPlaybackStateString(player.getPlaybackState()));
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: URL: " + url);
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView parent: " + 
-                        (instance.surfaceView.getParent() != null ? instance.surfaceView.getParent().getClass().getName() : "null"));
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView visibility BEFORE: " + 
-                        (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                        instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView dimensions BEFORE: " + 
-                        instance.surfaceView.getWidth() + "x" + instance.surfaceView.getHeight());
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView isShown BEFORE: " + instance.surfaceView.isShown());
-                    
-                    // Check if SurfaceHolder is already ready
-                    android.view.SurfaceHolder holder = instance.surfaceView.getHolder();
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceHolder check - surface != null: " + 
-                        (holder.getSurface() != null));
-                    if (holder.getSurface() != null) {
-                        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceHolder.isValid: " + holder.getSurface().isValid());
-                        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceHolder frame: " + holder.getSurfaceFrame().width() + "x" + holder.getSurfaceFrame().height());
-                    }
-                    
-                    if (holder.getSurface() != null && holder.getSurface().isValid()) {
-                        // SurfaceHolder is ready - associate immediately
-                        android.util.Log.d("ExoPlayerSignage", "✅ SurfaceHolder is ready - associating immediately");
-                        player.setVideoSurfaceView(instance.surfaceView);
-                        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state AFTER setVideoSurfaceView: " + getPlaybackStateString(player.getPlaybackState()));
-                        pendingPlayer = null; // Clear any pending player
-                    } else {
-                        // SurfaceHolder not ready yet - store player for callback
-                        android.util.Log.d("ExoPlayerSignage", "⏳ SurfaceHolder not ready - will associate when surfaceCreated() is called");
-                        pendingPlayer = player;
+            });
+        });
+    }
+
+    /**
+     * Surface handling of a video zone: the player gets the Surface on the playback thread and gives
+     * it back before the SurfaceView destroys it.
+     */
+    private VideoZone.Host createVideoZoneHost() {
+        return new VideoZone.Host() {
+            @Override
+            public void attachSurface(VideoZone zone, ExoPlayer player, android.view.Surface surface) {
+                runOnPlaybackThread(() -> {
+                    // The player may have been released (or pooled) in the meantime
+                    if (zone.getPlayer() == player) {
+                        player.setVideoSurface(surface);
                     }
-                    
-                    // Make SurfaceView visible when playing video
-                    instance.surfaceView.setVisibility(android.view.View.VISIBLE);
-                    
-                    android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility AFTER: VISIBLE");
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView isShown: " + instance.surfaceView.isShown());
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView width: " + instance.surfaceView.getWidth() + ", height: " + instance.surfaceView.getHeight());
-                    
-                    // Verify SurfaceView is still in DecorView
-                    ViewGroup parent = (ViewGroup) instance.surfaceView.getParent();
-                    if (parent != null) {
-                        android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView parent verified: " + parent.getClass().getName());
-                        android.util.Log.d("ExoPlayerSignage", "Parent child count: " + parent.getChildCount());
-                        
-                        // Verify SurfaceView has no z-order (should be 0)
-                        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
-                            float surfaceZ = instance.surfaceView.getZ();
-                            if (surfaceZ != 0f) {
-                                android.util.Log.w("ExoPlayerSignage", "⚠️ SurfaceView has z-order " + surfaceZ + " (should be 0) - resetting");
-                                instance.surfaceView.setZ(0f);
-                                instance.surfaceView.setElevation(0f);
-                            }
-                            android.util.Log.d("ExoPlayerSignage", "SurfaceView z-order: " + instance.surfaceView.getZ());
-                        }
-                        
-                        for (int i = 0; i < parent.getChildCount(); i++) {
-                            android.view.View child = parent.getChildAt(i);
-                            if (child == instance.surfaceView) {
-                                android.util.Log.d("ExoPlayerSignage", "  ✅ Found SurfaceView at index " + i);
-                            } else {
-                                String zInfo = "";
-                                if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
-                                    zInfo = " (z: " + child.getZ() + ", elevation: " + child.getElevation() + ")";
-                                }
-                                android.util.Log.d("ExoPlayerSignage", "  Child " + i + ": " + child.getClass().getName() + 
-                                    " (visibility: " + (child.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                                    child.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE") + ")" + zInfo);
-                            }
+                });
+            }
+            
+            @Override
+            public void detachSurface(ExoPlayer player, android.view.Surface surface) {
+                runOnPlaybackThreadAndWait(() -> player.clearVideoSurface(surface), SURFACE_RELEASE_TIMEOUT_MS);
+            }
+            
+            @Override
+            public void onSurfaceSizeChanged(VideoZone zone, int width, int height) {
+                // Renditions above the zone size are wasted decoding work
+                runOnPlaybackThread(() -> {
+                    for (PlayerInstance instance : players.values()) {
+                        if (instance.zone == zone) {
+                            applyTrackSelectionConstraints(instance);
                         }
-                    } else {
-                        android.util.Log.e("ExoPlayerSignage", "❌ ERROR: SurfaceView has no parent!");
                     }
+                });
+            }
+        };
+    }
+
+    /**
+     * Remove the player's video zone (if any); the player no longer renders into it.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void releaseVideoZone(PlayerInstance instance) {
+        VideoZone zone = instance.zone;
+        if (zone == null) {
+            return;
+        }
+        zone.unbind();
+        instance.zone = null;
+        instance.surfaceView = null;
+        instance.player.clearVideoSurface();
+        runOnUiThread(zone::release);
+    }
+
+    /**
+     * Show the current item's image (if it is an image slide) and decode the next one ahead.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void updateImageSlides(PlayerInstance instance) {
+        ExoPlayer player = instance.player;
+        MediaItem current = player.getCurrentMediaItem();
+        int nextIndex = player.getNextMediaItemIndex();
+        MediaItem next = nextIndex != C.INDEX_UNSET ? player.getMediaItemAt(nextIndex) : null;
+        boolean currentIsImage = ImageSlideSource.isImage(current);
+        boolean nextIsImage = ImageSlideSource.isImage(next);
+        if (!currentIsImage && !nextIsImage && instance.imageSlides == null) {
+            return;
+        }
+        
+        runOnUiThread(() -> {
+            ImageSlideLoader loader = imageSlideLoader;
+            if (players.get(instance.id) != instance || loader == null) {
+                return;
+            }
+            ImageSlideView slides = instance.imageSlides;
+            if (slides == null) {
+                slides = new ImageSlideView(getContext(), loader, createImageSlideListener(instance));
+                instance.imageSlides = slides;
+            }
+            slides.attach(instance.surfaceView);
+            if (currentIsImage) {
+                slides.show(current.localConfiguration.uri.toString(), current.localConfiguration.customCacheKey);
+            } else {
+                slides.hide();
+            }
+            if (nextIsImage) {
+                slides.prefetch(next.localConfiguration.uri.toString(), next.localConfiguration.customCacheKey);
+            } else {
+                slides.prefetch(null, null);
+            }
+        });
+    }
+
+    /**
+     * Report images that could not be loaded as playerEvents errors (nothing is drawn for the slide).
+     */
+    private ImageSlideView.Listener createImageSlideListener(PlayerInstance instance) {
+        return (url, message) -> runOnPlaybackThread(() -> {
+            JSObject event = createPlayerEvent(instance.id, "error");
+            event.put("code", "IMAGE_LOAD_FAILED");
+            event.put("message", message + " (" + url + ")");
+            eventBatcher.add(event);
+        });
+    }
+
+    /**
+     * Remove the player's image slides (if any).
+     * Note: This method should only be called from the playback thread.
+     */
+    private void releaseImageSlides(PlayerInstance instance) {
+        ImageSlideView slides = instance.imageSlides;
+        if (slides == null) {
+            return;
+        }
+        instance.imageSlides = null;
+        runOnUiThread(slides::release);
+    }
+
+    /**
+     * Parse a bounds option ({ x, y, width, height, zIndex }), or null if absent.
+     * @throws IllegalArgumentException if it is invalid
+     */
+    private VideoBounds parseVideoBounds(org.json.JSONObject bounds) {
+        if (bounds == null) {
+            return null;
+        }
+        double width = bounds.optDouble("width", Double.NaN);
+        double height = bounds.optDouble("height", Double.NaN);
+        if (!(width > 0) || !(height > 0)) {
+            throw new IllegalArgumentException("bounds.width and bounds.height must be > 0");
+        }
+        return new VideoBounds(bounds.optDouble("x", 0), bounds.optDouble("y", 0), width, height,
+                bounds.optInt("zIndex", 0));
+    }
+
+    /**
+     * Withdraw a player's claim on the shared Surface (handing it back to the previous requester) and
+     * detach it from whatever Surface it renders into.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void clearPlayerSurface(ExoPlayer player) {
+        surfaceArbiter.withdraw(player);
+        player.clearVideoSurface();
+    }
+
+    /**
+     * Run work on the playback thread (immediately if already on it).
+     */
+    private void runOnPlaybackThread(Runnable runnable) {
+        android.os.Handler handler = playbackHandler;
+        if (handler == null) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Playback thread not available");
+            return;
+        }
+        if (android.os.Looper.myLooper() == handler.getLooper()) {
+            runnable.run();
+        } else {
+            handler.post(runnable);
+        }
+    }
+
+    /**
+     * Run work on the playback thread and wait for it (bounded), e.g. when a Surface is going away.
+     */
+    private void runOnPlaybackThreadAndWait(Runnable runnable, long timeoutMs) {
+        android.os.Handler handler = playbackHandler;
+        if (handler == null) {
+            return;
+        }
+        if (android.os.Looper.myLooper() == handler.getLooper()) {
+            runnable.run();
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        handler.post(() -> {
+            try {
+                runnable.run();
+            } finally {
+                latch.countDown();
+            }
+        });
+        try {
+            if (!latch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                android.util.Log.w("ExoPlayerSignage", "⚠️ Playback thread did not finish in " + timeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run the UI work collected by a playback-thread pass in a single main-thread post, so it lands
+     * in the same frame.
+     */
+    private void runUiWork(List<Runnable> uiWork) {
+        if (uiWork.isEmpty()) {
+            return;
+        }
+        runOnUiThread(() -> {
+            for (Runnable work : uiWork) {
+                try {
+                    work.run();
+                } catch (Exception e) {
+                    android.util.Log.w("ExoPlayerSignage", "⚠️ UI work failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Run UI work (SurfaceView attach/visibility) on the main thread.
+     */
+    private void runOnUiThread(Runnable runnable) {
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity != null) {
+            activity.runOnUiThread(runnable);
+        } else {
+            new android.os.Handler(android.os.Looper.getMainLooper()).post(runnable);
+        }
+    }
+
+    /**
+     * Configure the cache budget from capacitor.config (plugins.ExoPlayerSignage), sizes in MB.
+     */
+    private void configureCacheBudgetFromConfig() {
+        long mb = 1024L * 1024;
+        cacheEvictor.configure(
+                getConfig().getInt("cacheMinMB", (int) (AdaptiveCacheEvictor.DEFAULT_MIN_BYTES / mb)) * mb,
+                getConfig().getInt("cacheMaxMB", (int) (AdaptiveCacheEvictor.DEFAULT_MAX_BYTES / mb)) * mb,
+                getConfig().getInt("cacheFreeSpacePercent", AdaptiveCacheEvictor.DEFAULT_FREE_SPACE_PERCENT),
+                getConfig().getInt("cacheReserveMB", (int) (AdaptiveCacheEvictor.DEFAULT_RESERVE_BYTES / mb)) * mb,
+                AdaptiveCacheEvictor.DEFAULT_CHECK_INTERVAL_MS);
+    }
+
+    @Override
+    public void load() {
+        // Budget is recomputed from the free space while the app runs
+        cacheEvictor = new AdaptiveCacheEvictor(getContext().getCacheDir());
+        configureCacheBudgetFromConfig();
+
+        // Query parameters to drop from cache keys can be preset in capacitor.config (plugins.ExoPlayerSignage)
+        String[] ignoredQueryParams = getConfig().getArray("cacheKeyIgnoredQueryParams");
+        if (ignoredQueryParams != null) {
+            cacheKeyFactory.setIgnoredQueryParams(Arrays.asList(ignoredQueryParams));
+        }
+        
+        upstreamDataSourceFactory = createHttpDataSourceFactory();
+        
+        // Bandwidth left to background transfers (bytes/s, 0 = unlimited), can be preset in capacitor.config
+        backgroundThrottle.setMaxBytesPerSecond(getConfig().getInt("backgroundMaxBytesPerSecond", 0));
+        
+        String configuredCacheMode = getConfig().getString("cacheMode", "network");
+        if (isValidCacheMode(configuredCacheMode)) {
+            cacheMode = configuredCacheMode;
+        }
+        
+        // Total buffer memory of all players (MB), can be preset in capacitor.config
+        int bufferMemoryMB = getConfig().getInt("bufferMemoryMB", 0);
+        bufferBudget = new BufferMemoryBudget(bufferMemoryMB > 0
+                ? bufferMemoryMB * 1024 * 1024
+                : BufferMemoryBudget.getDefaultCapBytes(getContext()));
+        
+        precacheManager = new PrecacheManager(PrecacheManager.DEFAULT_CONCURRENCY);
+        cacheVerifier = new CacheVerifier();
+        
+        playbackThread = new android.os.HandlerThread("ExoPlayerSignage-Playback", android.os.Process.THREAD_PRIORITY_AUDIO);
+        playbackThread.start();
+        playbackHandler = new android.os.Handler(playbackThread.getLooper());
+        
+        // Hardware decoder budget: policy ("downgrade", "queue" or "off") and a cap on concurrent
+        // decoders can be preset in capacitor.config. Scanned before any player is built.
+        String decoderPolicy = getConfig().getString("decoderPolicy", DecoderBudget.POLICY_DOWNGRADE);
+        int maxHardwareDecoders = getConfig().getInt("maxHardwareDecoders", 0);
+        runOnPlaybackThread(() -> {
+            DecoderBudget budget = new DecoderBudget(createDecoderBudgetListener());
+            if (DecoderBudget.isValidPolicy(decoderPolicy)) {
+                budget.setPolicy(decoderPolicy);
+            }
+            budget.setMaxInstances(maxHardwareDecoders);
+            decoderBudget = budget;
+        });
+        
+        playerPool = new PlayerPool(this::buildPlayer, playbackThread.getLooper());
+        
+        // playerEvents batches per second (0 = disabled), can be preset in capacitor.config
+        eventBatcher = new PlayerEventBatcher(playbackHandler, createEventBatcherListener());
+        eventBatcher.setRateHz(getConfig().getInt("eventRateHz", PlayerEventBatcher.DEFAULT_RATE_HZ));
+        
+        // Opening a large cache scans every span file - don't hold up app startup for it
+        openCacheAsync();
+    }
+
+    /**
+     * Open the SimpleCache on a background thread, then run the calls that were waiting for it and
+     * emit cacheReady.
+     */
+    private void openCacheAsync() {
+        File cacheDir = new File(getContext().getCacheDir(), "exoplayer");
+        databaseProvider = new StandaloneDatabaseProvider(getContext());
+        Thread thread = new Thread(() -> {
+            android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+            long startMs = android.os.SystemClock.elapsedRealtime();
+            String error = null;
+            try {
+                SimpleCache openedCache = new SimpleCache(
+                        cacheDir,
+                        cacheEvictor,
+                        databaseProvider);
+                // The constructor only starts indexing the existing spans on SimpleCache's own thread -
+                // wait for it here, so the cache is usable when published (and init errors surface)
+                try {
+                    openedCache.checkInitialization();
+                } catch (Exception e) {
+                    openedCache.release();
+                    throw e;
+                }
+                if (destroyed) {
+                    openedCache.release();
+                    return;
+                }
+                cache = openedCache;
+                cacheDataSourceFactory = createCacheDataSourceFactory(null);
+                backgroundCacheDataSourceFactory = createBackgroundCacheDataSourceFactory();
+                imageSlideLoader = new ImageSlideLoader(cacheDataSourceFactory, backgroundCacheDataSourceFactory,
+                        priorityTaskManager, new BitmapPool(BitmapPool.DEFAULT_MAX_BYTES));
+                cacheEvictor.start(openedCache);
+            } catch (Exception e) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                android.util.Log.e("ExoPlayerSignage", "❌ Could not open cache: " + error, e);
+            }
+            cacheOpenDurationMs = android.os.SystemClock.elapsedRealtime() - startMs;
+            cacheOpenError = error;
+            android.util.Log.d("ExoPlayerSignage", "💾 Cache opened in " + cacheOpenDurationMs + "ms");
+            
+            if (error == null) {
+                // Pre-build one idle player per type, so the first createPlayer is fast
+                runOnPlaybackThread(() -> {
+                    if (destroyed) {
+                        return;
+                    }
+                    // Resumes downloads left unfinished by the last run
+                    offlineDownloads = new OfflineDownloadManager(getContext(), databaseProvider, cache,
+                            new ThrottledDataSource.Factory(upstreamDataSourceFactory, backgroundThrottle),
+                            cacheKeyFactory, cacheEvictor, priorityTaskManager, createDownloadListener());
+                    if (playerPool != null) {
+                        playerPool.warmUp("video");
+                        playerPool.warmUp("audio");
+                    }
+                });
+            }
+            
+            List<PendingCommand> commands;
+            synchronized (pendingCacheCommands) {
+                cacheOpened = true;
+                commands = new ArrayList<>(pendingCacheCommands);
+                pendingCacheCommands.clear();
+            }
+            for (PendingCommand pending : commands) {
+                runCacheCommand(pending.call, pending.command);
+            }
+            
+            JSObject data = new JSObject();
+            data.put("success", error == null);
+            data.put("openDurationMs", cacheOpenDurationMs);
+            if (error != null) {
+                data.put("error", error);
+            }
+            // Retained until a listener is added - the app may register after the cache opened
+            notifyListeners("cacheReady", data, true);
+        }, "ExoPlayerSignage-CacheInit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Run a command that needs the cache, or queue it until the cache is open.
+     */
+    private void whenCacheReady(PluginCall call, Runnable command) {
+        synchronized (pendingCacheCommands) {
+            if (!cacheOpened) {
+                android.util.Log.d("ExoPlayerSignage", "⏳ Cache still opening - queued " + call.getMethodName() + "()");
+                pendingCacheCommands.add(new PendingCommand(call, command));
+                return;
+            }
+        }
+        runCacheCommand(call, command);
+    }
+
+    private void runCacheCommand(PluginCall call, Runnable command) {
+        if (destroyed) {
+            call.reject("Plugin destroyed");
+            return;
+        }
+        if (cache == null) {
+            call.reject("Cache not available: " + cacheOpenError);
+            return;
+        }
+        try {
+            command.run();
+        } catch (Exception e) {
+            call.reject("Error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build a new ExoPlayer reading through the shared cache, living on the playback thread.
+     * Its buffers come from the shared, capped allocator. Used by the player pool.
+     */
+    private ExoPlayer buildPlayer(String type) {
+        BufferLoadControl loadControl = new BufferLoadControl(bufferBudget);
+        ExoPlayer.Builder builder = new ExoPlayer.Builder(getContext())
+                .setLooper(playbackThread.getLooper())
+                .setLoadControl(loadControl)
+                .setPriorityTaskManager(priorityTaskManager)
+                .setMediaSourceFactory(
+                        new DefaultMediaSourceFactory(getContext())
+                                .setDataSourceFactory(cacheDataSourceFactory));
+        
+        // Video decoders are picked within the hardware decoder budget
+        DecoderBudget budget = decoderBudget;
+        DecoderBudget.Tracker decoderTracker = null;
+        if ("video".equals(type) && budget != null) {
+            decoderTracker = budget.createTracker();
+            builder.setRenderersFactory(new DefaultRenderersFactory(getContext())
+                    .setMediaCodecSelector(budget.createSelector(decoderTracker)));
+        }
+        
+        ExoPlayer player = builder.build();
+        loadControls.put(player, loadControl);
+        if (decoderTracker != null) {
+            player.addAnalyticsListener(decoderTracker);
+            decoderTrackers.put(player, decoderTracker);
+        }
+        return player;
+    }
+
+    /**
+     * Build a MediaItem for a URL, with an explicit cache key if the app provided one.
+     */
+    private MediaItem buildMediaItem(String url, String mediaId, String cacheKey) {
+        MediaItem.Builder builder = new MediaItem.Builder().setUri(Uri.parse(url));
+        if (mediaId != null) {
+            builder.setMediaId(mediaId);
+        }
+        if (cacheKey != null && !cacheKey.isEmpty()) {
+            builder.setCustomCacheKey(cacheKey);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Cache key of a URL: the explicit key if the app provided one, otherwise derived from the URL.
+     */
+    private String getCacheKey(String url, String cacheKey) {
+        if (cacheKey != null && !cacheKey.isEmpty()) {
+            return cacheKey;
+        }
+        return cacheKeyFactory.buildCacheKey(Uri.parse(url));
+    }
+
+    /**
+     * Cache key of a MediaItem, see getCacheKey(String, String).
+     */
+    private String getCacheKey(MediaItem mediaItem) {
+        if (mediaItem.localConfiguration == null) {
+            return null;
+        }
+        return getCacheKey(mediaItem.localConfiguration.uri.toString(), mediaItem.localConfiguration.customCacheKey);
+    }
+
+    /**
+     * Count a play for the cache evictor (frequently played media is kept longer).
+     */
+    private void recordPlay(MediaItem mediaItem) {
+        String key = mediaItem != null ? getCacheKey(mediaItem) : null;
+        if (cacheEvictor != null && key != null) {
+            cacheEvictor.recordPlay(key);
+        }
+    }
+
+    /**
+     * Set the media of a player through its own media source factory, so loads are attributed to
+     * the player's stats collector.
+     */
+    private void setPlayerMediaItems(PlayerInstance instance, List<MediaItem> mediaItems) {
+        List<MediaSource> mediaSources = new ArrayList<>();
+        boolean offline = !"network".equals(cacheMode);
+        boolean autoBuffer = "auto".equals(instance.bufferProfile) && instance.loadControl != null;
+        boolean allCached = true;
+        for (MediaItem mediaItem : mediaItems) {
+            // Image slides only hold their place (and duration) in the timeline
+            if (ImageSlideSource.isImage(mediaItem)) {
+                mediaSources.add(new ImageSlideSource(mediaItem));
+                continue;
+            }
+            // Offline downloads play only the renditions that were downloaded
+            MediaItem downloaded = getDownloadedMediaItem(mediaItem);
+            if (downloaded != null) {
+                mediaItem = downloaded;
+            }
+            boolean cached = downloaded != null || ((offline || autoBuffer) && isFullyCached(getCacheKey(mediaItem)));
+            allCached &= cached;
+            // Fully cached media skips the upstream entirely, so a missing network never delays startup
+            MediaSource.Factory factory = offline && cached
+                    ? instance.cacheOnlyMediaSourceFactory
+                    : instance.mediaSourceFactory;
+            mediaSources.add(factory.createMediaSource(mediaItem));
+        }
+        if (autoBuffer) {
+            // Small buffers when everything is read from disk, large ones when streaming
+            instance.loadControl.setProfile(allCached ? BufferLoadControl.LOCAL : BufferLoadControl.STREAM);
+        }
+        instance.player.setMediaSources(mediaSources, true);
+    }
+
+    /**
+     * Limit video track selection to the size of the player's Surface (shared or zone; the display
+     * size until the Surface exists)
+     * and, if enabled, to what the decoder supports.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void applyTrackSelectionConstraints(PlayerInstance instance) {
+        ExoPlayer player = instance.player;
+        if (!(player.getTrackSelector() instanceof DefaultTrackSelector)) {
+            return;
+        }
+        DefaultTrackSelector trackSelector = (DefaultTrackSelector) player.getTrackSelector();
+        DefaultTrackSelector.Parameters.Builder parameters = trackSelector.buildUponParameters()
+                .setExceedRendererCapabilitiesIfNecessary(!respectDecoderCapabilities);
+        
+        int width = surfaceWidth;
+        int height = surfaceHeight;
+        VideoZone zone = instance.zone;
+        if (zone != null) {
+            width = zone.getSurfaceWidth();
+            height = zone.getSurfaceHeight();
+        }
+        if (width <= 0 || height <= 0) {
+            android.util.DisplayMetrics metrics = getContext().getResources().getDisplayMetrics();
+            width = metrics.widthPixels;
+            height = metrics.heightPixels;
+        }
+        if (limitVideoToSurface && width > 0 && height > 0) {
+            // Keeps the smallest rendition that fills the viewport and drops everything larger
+            parameters.setViewportSize(width, height, false);
+        } else {
+            parameters.clearViewportSizeConstraints();
+        }
+        trackSelector.setParameters(parameters);
+    }
+
+    /**
+     * Add a listener to the player and remember it so it can be removed when the player is returned.
+     */
+    private void addPlayerListener(PlayerInstance instance, Player.Listener listener) {
+        instance.player.addListener(listener);
+        instance.listeners.add(listener);
+    }
+
+    /**
+     * Detach the player from the plugin (listeners, surface) and hand it back to the pool.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void returnPlayerToPool(PlayerInstance instance) {
+        decoderQueue.remove(instance);
+        for (Player.Listener listener : instance.listeners) {
+            instance.player.removeListener(listener);
+        }
+        instance.listeners.clear();
+        instance.player.removeAnalyticsListener(instance.stats);
+        releaseImageSlides(instance);
+        releaseVideoZone(instance);
+        if ("video".equals(instance.type)) {
+            clearPlayerSurface(instance.player);
+        }
+        if (playerPool != null) {
+            playerPool.release(instance.type, instance.player);
+        } else {
+            instance.player.release();
+        }
+    }
+
+    /**
+     * Create the HttpDataSourceFactory used for every upstream request.
+     * The Authorization header is added per request by authTokenRegistry.
+     */
+    private ResolvingDataSource.Factory createHttpDataSourceFactory() {
+        DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory();
+        httpDataSourceFactory.setUserAgent("ExoPlayerSignage");
+        httpDataSourceFactory.setConnectTimeoutMs(DefaultHttpDataSource.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+        httpDataSourceFactory.setReadTimeoutMs(DefaultHttpDataSource.DEFAULT_READ_TIMEOUT_MILLIS);
+        httpDataSourceFactory.setAllowCrossProtocolRedirects(true);
+        // Every network byte read through the cache stack is a cache miss
+        httpDataSourceFactory.setTransferListener(cacheStats);
+        return new ResolvingDataSource.Factory(httpDataSourceFactory, authTokenRegistry);
+    }
+
+    /**
+     * Create a CacheDataSourceFactory over the shared cache and the shared upstream stack.
+     * Cache hits always go to cacheStats; the event listener (optional) is told as well.
+     */
+    private CacheDataSource.Factory createCacheDataSourceFactory(CacheDataSource.EventListener eventListener) {
+        return new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(upstreamDataSourceFactory)
+                .setCacheKeyFactory(cacheKeyFactory)
+                .setFlags(CacheDataSource.FLAG_BLOCK_ON_CACHE | CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+                .setEventListener(createCacheEventListener(eventListener));
+    }
+
+    /**
+     * Create the CacheDataSourceFactory for background transfers (precache): upstream reads are
+     * throttled and yield to any player that is loading.
+     */
+    private CacheDataSource.Factory createBackgroundCacheDataSourceFactory() {
+        return new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(new ThrottledDataSource.Factory(upstreamDataSourceFactory, backgroundThrottle))
+                .setUpstreamPriorityTaskManager(priorityTaskManager)
+                .setUpstreamPriority(C.PRIORITY_DOWNLOAD)
+                .setCacheKeyFactory(cacheKeyFactory)
+                .setFlags(CacheDataSource.FLAG_BLOCK_ON_CACHE | CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+                .setEventListener(createCacheEventListener(null));
+    }
+
+    /**
+     * Create a read-only CacheDataSourceFactory without upstream: reading anything that is not
+     * cached fails immediately instead of waiting on network timeouts.
+     */
+    private CacheDataSource.Factory createCacheOnlyDataSourceFactory(CacheDataSource.EventListener eventListener) {
+        return new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(null)
+                .setCacheWriteDataSinkFactory(null)
+                .setCacheKeyFactory(cacheKeyFactory)
+                .setFlags(CacheDataSource.FLAG_BLOCK_ON_CACHE)
+                .setEventListener(createCacheEventListener(eventListener));
+    }
+
+    /**
+     * Cache event listener feeding cacheStats and, if given, another listener.
+     */
+    private CacheDataSource.EventListener createCacheEventListener(CacheDataSource.EventListener eventListener) {
+        CacheDataSource.EventListener listener = cacheStats;
+        if (eventListener != null) {
+            listener = new CacheDataSource.EventListener() {
+                @Override
+                public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+                    cacheStats.onCachedBytesRead(cacheSizeBytes, cachedBytesRead);
+                    eventListener.onCachedBytesRead(cacheSizeBytes, cachedBytesRead);
+                }
+                
+                @Override
+                public void onCacheIgnored(int reason) {
+                    cacheStats.onCacheIgnored(reason);
+                    eventListener.onCacheIgnored(reason);
+                }
+            };
+        }
+        return listener;
+    }
+
+    /**
+     * Whether every byte of a key is in the cache (its content length must be known).
+     * Adaptive streams (HLS/DASH) are cached per segment, so their playlist URL never counts as fully cached.
+     */
+    private boolean isFullyCached(String key) {
+        SimpleCache currentCache = cache;
+        if (currentCache == null || key == null) {
+            return false;
+        }
+        long contentLength = com.google.android.exoplayer2.upstream.cache.ContentMetadata.getContentLength(
+                currentCache.getContentMetadata(key));
+        return contentLength != C.LENGTH_UNSET && currentCache.isCached(key, 0, contentLength);
+    }
+
+    /**
+     * Media item of a completed offline download of the same media (same cache key), restricted to
+     * the downloaded renditions, or null.
+     */
+    private MediaItem getDownloadedMediaItem(MediaItem mediaItem) {
+        OfflineDownloadManager downloads = offlineDownloads;
+        if (downloads == null || mediaItem.localConfiguration == null) {
+            return null;
+        }
+        Download download = downloads.getCompletedDownload(getCacheKey(mediaItem));
+        if (download == null) {
+            return null;
+        }
+        // The current URL (e.g. freshly signed) in case anything is still requested upstream
+        return download.request.toMediaItem().buildUpon()
+                .setUri(mediaItem.localConfiguration.uri)
+                .setMediaId(mediaItem.mediaId)
+                .build();
+    }
+
+    private boolean isValidCacheMode(String mode) {
+        return "network".equals(mode) || "offlineFirst".equals(mode) || "cacheOnly".equals(mode);
+    }
+
+    /**
+     * Check that a media item may be played in the current cache mode. Media that is not fully cached
+     * is reported with an uncachedMedia event; in "cacheOnly" mode it must be skipped (returns false).
+     */
+    private boolean checkCacheCoverage(String playerId, MediaItem mediaItem) {
+        String mode = cacheMode;
+        if ("network".equals(mode)) {
+            return true;
+        }
+        String key = getCacheKey(mediaItem);
+        if (isFullyCached(key) || getDownloadedMediaItem(mediaItem) != null) {
+            return true;
+        }
+        
+        boolean allowed = !"cacheOnly".equals(mode);
+        android.util.Log.w("ExoPlayerSignage", "📴 Media not fully cached (" + (allowed ? "using network" : "skipped") + "): " + key);
+        
+        JSObject data = new JSObject();
+        data.put("playerId", playerId);
+        if (mediaItem.localConfiguration != null) {
+            data.put("url", mediaItem.localConfiguration.uri.toString());
+        }
+        data.put("cacheKey", key);
+        data.put("action", allowed ? "network" : "skipped");
+        notifyListeners("uncachedMedia", data);
+        return allowed;
+    }
+
+    @PluginMethod
+    public void createPlayer(PluginCall call) {
+        String type = call.getString("type", "video");
+        if (!"video".equals(type) && !"audio".equals(type)) {
+            call.reject("Invalid type. Must be 'video' or 'audio'");
+            return;
+        }
+        
+        // Get initial volume (optional, defaults based on type)
+        Double volumeValue = call.getDouble("volume", null);
+        float initialVolume;
+        if (volumeValue != null) {
+            initialVolume = volumeValue.floatValue();
+        } else {
+            // Default volumes: 0.0 for video, 1.0 for audio
+            initialVolume = "audio".equals(type) ? 1.0f : 0.0f;
+        }
+        
+        // Get z-index (optional, null = use bringToFront() by default)
+        Double zIndexValue = call.getDouble("zIndex", null);
+        Float zIndex = zIndexValue != null ? zIndexValue.floatValue() : null;
+        
+        // Buffer profile (optional): "local", "balanced", "stream" or "auto" (default)
+        String bufferProfile = call.getString("bufferProfile", "auto");
+        if (!"auto".equals(bufferProfile) && BufferLoadControl.getProfile(bufferProfile) == null) {
+            call.reject("Invalid bufferProfile. Must be 'auto', 'local', 'balanced' or 'stream'");
+            return;
+        }
+        
+        // Bounds (optional, video only): own positioned SurfaceView instead of the shared full-screen one
+        VideoBounds bounds;
+        try {
+            bounds = parseVideoBounds(call.getObject("bounds"));
+        } catch (IllegalArgumentException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        if (bounds != null && !"video".equals(type)) {
+            call.reject("bounds only apply to video players");
+            return;
+        }
+        
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null) {
+            call.reject("Activity not available");
+            return;
+        }
+        
+        // Players read through the cache - wait for it to be open
+        whenCacheReady(call, () -> runOnPlaybackThread(() -> {
+            try {
+                String playerId = UUID.randomUUID().toString();
+                ExoPlayer player = playerPool != null ? playerPool.acquire(type) : buildPlayer(type);
+                PlayerInstance instance = new PlayerInstance(player, null, type, playerId);
+                
+                instance.bufferProfile = bufferProfile;
+                instance.decoderTracker = decoderTrackers.get(player);
+                instance.loadControl = loadControls.get(player);
+                if (instance.loadControl != null) {
+                    instance.loadControl.setProfile("auto".equals(bufferProfile)
+                            ? BufferLoadControl.STREAM
+                            : BufferLoadControl.getProfile(bufferProfile));
+                }
+                
+                // Playback metrics (getPlaybackStats / playbackStats event)
+                instance.mediaSourceFactory = new DefaultMediaSourceFactory(getContext())
+                        .setDataSourceFactory(createCacheDataSourceFactory(instance.stats));
+                instance.cacheOnlyMediaSourceFactory = new DefaultMediaSourceFactory(getContext())
+                        .setDataSourceFactory(createCacheOnlyDataSourceFactory(instance.stats));
+                player.addAnalyticsListener(instance.stats);
+                
+                if ("video".equals(type)) {
+                    applyTrackSelectionConstraints(instance);
+                    
+                    // Configure AudioAttributes for video
+                    AudioAttributes audioAttributes = new AudioAttributes.Builder()
+                            .setUsage(C.USAGE_MEDIA)
+                            .setContentType(C.CONTENT_TYPE_MOVIE)
+                            .build();
+                    player.setAudioAttributes(audioAttributes, false);
+                } else {
+                    // Audio player - no SurfaceView needed
+                    // Configure AudioAttributes for audio
+                    AudioAttributes audioAttributes = new AudioAttributes.Builder()
+                            .setUsage(C.USAGE_MEDIA)
+                            .setContentType(C.CONTENT_TYPE_MUSIC)
+                            .build();
+                    player.setAudioAttributes(audioAttributes, false);
+                    
+                    // Add listener for audio playback ended
+                    addPlayerListener(instance, new Player.Listener() {
+                        @Override
+                        public void onPlaybackStateChanged(int playbackState) {
+                            if (playbackState == Player.STATE_ENDED) {
+                                JSObject data = new JSObject();
+                                data.put("playerId", playerId);
+                                notifyListeners("audioPlaybackEnded", data);
+                            }
+                        }
+                    });
+                }
+                
+                // State, buffering and error events (playerEvents batches)
+                addPlayerListener(instance, createPlayerEventListener(playerId, player));
+                
+                if ("video".equals(type)) {
+                    // Image slides follow the current (and next) playlist item
+                    addPlayerListener(instance, new Player.Listener() {
+                        @Override
+                        public void onEvents(Player eventPlayer, Player.Events events) {
+                            if (events.containsAny(Player.EVENT_MEDIA_ITEM_TRANSITION, Player.EVENT_TIMELINE_CHANGED,
+                                    Player.EVENT_REPEAT_MODE_CHANGED, Player.EVENT_SHUFFLE_MODE_ENABLED_CHANGED)) {
+                                updateImageSlides(instance);
+                            }
+                        }
+                    });
+                }
+                
+                // Report playlist item transitions (proof-of-play) and playlist end
+                addPlayerListener(instance, new Player.Listener() {
+                    @Override
+                    public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+                        PlayerInstance current = players.get(playerId);
+                        if (current == null || !current.playlistMode || mediaItem == null) {
+                            return;
+                        }
+                        recordPlay(mediaItem);
+                        JSObject data = new JSObject();
+                        data.put("playerId", playerId);
+                        data.put("index", player.getCurrentMediaItemIndex());
+                        data.put("mediaId", mediaItem.mediaId);
+                        if (mediaItem.localConfiguration != null) {
+                            data.put("url", mediaItem.localConfiguration.uri.toString());
+                        }
+                        data.put("reason", getTransitionReasonString(reason));
+                        notifyListeners("playlistItemTransition", data);
+                    }
+                    
+                    @Override
+                    public void onPlaybackStateChanged(int playbackState) {
+                        PlayerInstance current = players.get(playerId);
+                        if (playbackState == Player.STATE_ENDED && current != null && current.playlistMode) {
+                            JSObject data = new JSObject();
+                            data.put("playerId", playerId);
+                            notifyListeners("playlistEnded", data);
+                        }
+                    }
+                });
+                
+                // Set initial volume (configurable from tv_app)
+                player.setVolume(initialVolume);
+                
+                player.setPlayWhenReady(true);
+                player.setRepeatMode(ExoPlayer.REPEAT_MODE_OFF);
+                
+                // Store player instance
+                players.put(playerId, instance);
+                
+                JSObject result = new JSObject();
+                result.put("playerId", playerId);
+                
+                if ("video".equals(type)) {
+                    // Own positioned SurfaceView, or the shared full-screen one (UI thread)
+                    runOnUiThread(() -> {
+                        if (bounds != null) {
+                            applyVideoBounds(instance, bounds);
+                        } else {
+                            instance.surfaceView = getOrCreateVideoSurfaceView();
+                        }
+                        call.resolve(result);
+                    });
+                } else {
+                    call.resolve(result);
+                }
+            } catch (Exception e) {
+                call.reject("Error creating player: " + e.getMessage(), e);
+            }
+        }));
+    }
+
+    @PluginMethod
+    public void play(PluginCall call) {
+        String playerId = call.getString("playerId");
+        String url = call.getString("url");
+        
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        if (url == null) {
+            call.reject("URL requerida");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        // Visibility is controlled by the app, not by the plugin
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null) {
+            call.reject("Activity not available");
+            return;
+        }
+        
+        VideoBounds bounds;
+        try {
+            bounds = parseVideoBounds(call.getObject("bounds"));
+        } catch (IllegalArgumentException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        if (bounds != null && !"video".equals(instance.type)) {
+            call.reject("bounds only apply to video players");
+            return;
+        }
+        
+        String cacheKey = call.getString("cacheKey");
+        String authToken = call.getString("authToken");
+        runOnPlaybackThread(() -> {
+            try {
+                List<Runnable> uiWork = new ArrayList<>();
+                if (bounds != null) {
+                    // Position the zone before the surface is attached
+                    uiWork.add(() -> applyVideoBounds(instance, bounds));
+                }
+                startPlayback(instance, url, cacheKey, authToken, uiWork);
+                runUiWork(uiWork);
+                call.resolve();
+            } catch (CommandException e) {
+                call.reject(e.getMessage(), e.code);
+            } catch (Exception e) {
+                call.reject("Error playing: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Load and start a single clip (play()). UI work (attaching the SurfaceView) is added to uiWork
+     * for the caller to run.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void startPlayback(PlayerInstance instance, String url, String cacheKey, String authToken,
+                               List<Runnable> uiWork) throws CommandException {
+        ExoPlayer player = instance.player;
+        
+        // Media already prepared by preload() - just attach the surface and start
+        if (url.equals(instance.preloadedUrl) && player.getPlaybackState() != Player.STATE_IDLE) {
+            android.util.Log.d("ExoPlayerSignage", "⚡ Playing preloaded media: " + url);
+            cancelPendingPreload(instance, "played");
+            instance.preloadedUrl = null;
+            instance.stats.markLoadStart();
+            recordPlay(player.getCurrentMediaItem());
+            if ("video".equals(instance.type)) {
+                uiWork.add(() -> attachVideoSurface(instance));
+                player.setVolume(0.0f);
+            } else {
+                player.setVolume(1.0f);
+            }
+            player.play();
+            return;
+        }
+        // Offline modes: fail fast on media that is not fully cached, before touching the player
+        MediaItem mediaItem = buildMediaItem(url, null, cacheKey);
+        if (!checkCacheCoverage(instance.id, mediaItem)) {
+            throw new CommandException("Media not fully cached: " + url, "NOT_CACHED");
+        }
+        
+        cancelPendingPreload(instance, "replaced");
+        instance.preloadedUrl = null;
+        
+        // Stop any current playback before setting new media item
+        if (player.getPlaybackState() != Player.STATE_IDLE) {
+            player.stop();
+        }
+        
+        // Single clip playback - leave playlist mode if it was active
+        if (instance.playlistMode) {
+            instance.playlistMode = false;
+            player.setRepeatMode(Player.REPEAT_MODE_OFF);
+        }
+        
+        if (!"video".equals(instance.type)) {
+            // Audio playback - ensure NO SurfaceView is associated
+            // Audio players should NEVER have a SurfaceView
+            if (instance.surfaceView != null) {
+                try {
+                    player.clearVideoSurface();
+                } catch (Exception e) {
+                    // Ignore errors
+                }
+                // Don't modify visibility - that's controlled by the app
+            }
+        }
+        
+        // Auth token (if provided) is added to upstream requests by the shared data source stack,
+        // so authenticated clips take the same path as unauthenticated ones
+        authTokenRegistry.register(url, authToken);
+        
+        setPlayerMediaItems(instance, Collections.singletonList(mediaItem));
+        instance.stats.markLoadStart();
+        recordPlay(mediaItem);
+        
+        // For video players, associate SurfaceView on the UI thread
+        // The player renders the first frame as soon as the Surface reaches the playback thread
+        if ("video".equals(instance.type)) {
+            android.util.Log.d("ExoPlayerSignage", "🎬 Preparing to associate SurfaceView with player");
+            android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: URL: " + url);
+            uiWork.add(() -> {
+                attachVideoSurface(instance);
+                verifyVideoSurfaceInDecorView(instance);
+            });
+        }
+        
+        // Add player event listener for debugging
+        if ("video".equals(instance.type)) {
+            addPlayerListener(instance, new Player.Listener() {
+                @Override
+                public void onPlaybackStateChanged(int playbackState) {
+                    android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: Player playbackState changed to: " + getPlaybackStateString(playbackState));
+                    android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: Player isPlaying: " + player.isPlaying());
+                    android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: Player currentPosition: " + player.getCurrentPosition() + "ms");
+                }
+                
+                @Override
+                public void onIsPlayingChanged(boolean isPlaying) {
+                    android.util.Log.d("ExoPlayerSignage", "▶️ DEBUG: Player isPlaying changed to: " + isPlaying);
+                    android.util.Log.d("ExoPlayerSignage", "▶️ DEBUG: Player playbackState: " + getPlaybackStateString(player.getPlaybackState()));
+                }
+            });
+        }
+        
+        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: About to call player.prepare()");
+        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state BEFORE prepare: " + getPlaybackStateString(player.getPlaybackState()));
+        
+        prepareWithinDecoderBudget(instance);
+        
+        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state AFTER prepare: " + getPlaybackStateString(player.getPlaybackState()));
+        
+        // Ensure volume is set correctly (especially for audio after video)
+        if ("audio".equals(instance.type)) {
+            player.setVolume(1.0f);
+        } else if ("video".equals(instance.type)) {
+            player.setVolume(0.0f);
+        }
+        
+        // Start playback
+        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: About to call player.play()");
+        
+        player.play();
+        
+        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state AFTER play: " + getPlaybackStateString(player.getPlaybackState()));
+        android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player isPlaying AFTER play: " + player.isPlaying());
+    }
+
+    /**
+     * Debug check that the SurfaceView is still in the DecorView, below everything else.
+     * Note: This method should only be called from the UI thread (runOnUiThread).
+     */
+    private void verifyVideoSurfaceInDecorView(PlayerInstance instance) {
+        if (instance.surfaceView == null) {
+            return;
+        }
+        android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility AFTER: VISIBLE");
+        android.util.Log.d("ExoPlayerSignage", "SurfaceView isShown: " + instance.surfaceView.isShown());
+        android.util.Log.d("ExoPlayerSignage", "SurfaceView width: " + instance.surfaceView.getWidth() + ", height: " + instance.surfaceView.getHeight());
+        
+        // Verify SurfaceView is still in DecorView
+        ViewGroup parent = (ViewGroup) instance.surfaceView.getParent();
+        if (parent != null) {
+            android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView parent verified: " + parent.getClass().getName());
+            android.util.Log.d("ExoPlayerSignage", "Parent child count: " + parent.getChildCount());
+            
+            // Verify SurfaceView has no z-order (should be 0)
+            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
+                float surfaceZ = instance.surfaceView.getZ();
+                if (surfaceZ != 0f) {
+                    android.util.Log.w("ExoPlayerSignage", "⚠️ SurfaceView has z-order " + surfaceZ + " (should be 0) - resetting");
+                    instance.surfaceView.setZ(0f);
+                    instance.surfaceView.setElevation(0f);
+                }
+                android.util.Log.d("ExoPlayerSignage", "SurfaceView z-order: " + instance.surfaceView.getZ());
+            }
+            
+            for (int i = 0; i < parent.getChildCount(); i++) {
+                android.view.View child = parent.getChildAt(i);
+                if (child == instance.surfaceView) {
+                    android.util.Log.d("ExoPlayerSignage", "  ✅ Found SurfaceView at index " + i);
+                } else {
+                    String zInfo = "";
+                    if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
+                        zInfo = " (z: " + child.getZ() + ", elevation: " + child.getElevation() + ")";
+                    }
+                    android.util.Log.d("ExoPlayerSignage", "  Child " + i + ": " + child.getClass().getName() + 
+                        " (visibility: " + (child.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
+                        child.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE") + ")" + zInfo);
+                }
+            }
+        } else {
+            android.util.Log.e("ExoPlayerSignage", "❌ ERROR: SurfaceView has no parent!");
+        }
+    }
+
+    @PluginMethod
+    public void playPlaylist(PluginCall call) {
+        String playerId = call.getString("playerId");
+        JSArray itemsArray = call.getArray("items");
+        
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        if (itemsArray == null || itemsArray.length() == 0) {
+            call.reject("items requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        List<MediaItem> mediaItems;
+        try {
+            mediaItems = parsePlaylistItems(itemsArray);
+        } catch (IllegalArgumentException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        
+        Boolean loopValue = call.getBoolean("loop", true);
+        boolean loop = loopValue != null ? loopValue : true;
+        String authToken = call.getString("authToken");
+        
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null) {
+            call.reject("Activity not available");
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            try {
+                int itemCount = startNativePlaylist(instance, mediaItems, loop, authToken);
+                if (itemCount == 0) {
+                    call.reject("No playlist item is fully cached", "NOT_CACHED");
+                    return;
+                }
+                
+                JSObject result = new JSObject();
+                result.put("itemCount", itemCount);
+                result.put("skippedCount", mediaItems.size() - itemCount);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Error playing playlist: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Build the media items of a playlist: plain URLs or { url, id, cacheKey, type, durationMs } objects
+     * (type "image" = image slide shown for durationMs).
+     * Throws IllegalArgumentException naming the first invalid item.
+     */
+    private List<MediaItem> parsePlaylistItems(org.json.JSONArray itemsArray) {
+        List<MediaItem> mediaItems = new ArrayList<>();
+        for (int i = 0; i < itemsArray.length(); i++) {
+            org.json.JSONObject item = itemsArray.optJSONObject(i);
+            String itemUrl = item != null ? item.optString("url", null) : itemsArray.optString(i, null);
+            if (itemUrl == null || itemUrl.isEmpty()) {
+                throw new IllegalArgumentException("URL requerida en items[" + i + "]");
+            }
+            String mediaId = item != null ? item.optString("id", itemUrl) : itemUrl;
+            String cacheKey = item != null ? item.optString("cacheKey", null) : null;
+            MediaItem mediaItem = buildMediaItem(itemUrl, mediaId, cacheKey);
+            if (item != null && "image".equals(item.optString("type"))) {
+                long durationMs = item.optLong("durationMs", ImageSlideSource.DEFAULT_DURATION_MS);
+                if (durationMs <= 0) {
+                    throw new IllegalArgumentException("durationMs inválido en items[" + i + "]");
+                }
+                mediaItem = ImageSlideSource.setSlide(mediaItem.buildUpon(), durationMs).build();
+            }
+            mediaItems.add(mediaItem);
+        }
+        return mediaItems;
+    }
+
+    /**
+     * Replace whatever the player is doing with a native playlist (playPlaylist, schedules).
+     * The whole timeline is set up front so ExoPlayer can buffer the next item while the current
+     * one plays. Returns the number of items started - 0 if none may play in the current cache mode.
+     * Note: This method should only be called from the playback thread.
+     */
+    private int startNativePlaylist(PlayerInstance instance, List<MediaItem> mediaItems, boolean loop, String authToken) {
+        ExoPlayer player = instance.player;
+        
+        // Offline modes: items that are not fully cached are skipped in "cacheOnly" mode
+        List<MediaItem> playableItems = new ArrayList<>();
+        for (MediaItem mediaItem : mediaItems) {
+            if (checkCacheCoverage(instance.id, mediaItem)) {
+                playableItems.add(mediaItem);
+            }
+        }
+        if (playableItems.isEmpty()) {
+            return 0;
+        }
+        
+        if (player.getPlaybackState() != Player.STATE_IDLE) {
+            player.stop();
+        }
+        
+        cancelPendingPreload(instance, "replaced");
+        instance.preloadedUrl = null;
+        instance.playlistMode = true;
+        
+        for (MediaItem mediaItem : playableItems) {
+            authTokenRegistry.register(mediaItem.localConfiguration.uri.toString(), authToken);
+        }
+        setPlayerMediaItems(instance, playableItems);
+        instance.stats.markLoadStart();
+        
+        player.setRepeatMode(loop ? Player.REPEAT_MODE_ALL : Player.REPEAT_MODE_OFF);
+        
+        if ("video".equals(instance.type)) {
+            runOnUiThread(() -> attachVideoSurface(instance));
+        } else if (instance.surfaceView != null) {
+            // Audio players should NEVER have a SurfaceView
+            player.clearVideoSurface();
+        }
+        
+        android.util.Log.d("ExoPlayerSignage", "🎞️ Starting native playlist with " + playableItems.size() + " items (loop: " + loop + ")");
+        prepareWithinDecoderBudget(instance);
+        player.play();
+        return playableItems.size();
+    }
+
+    @PluginMethod
+    public void preload(PluginCall call) {
+        String playerId = call.getString("playerId");
+        String url = call.getString("url");
+        
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        if (url == null) {
+            call.reject("URL requerida");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        String authToken = call.getString("authToken");
+        
+        runOnPlaybackThread(() -> {
+            try {
+                ExoPlayer player = instance.player;
+                
+                MediaItem mediaItem = buildMediaItem(url, null, call.getString("cacheKey"));
+                if (!checkCacheCoverage(playerId, mediaItem)) {
+                    call.reject("Media not fully cached: " + url, "NOT_CACHED");
+                    return;
+                }
+                
+                // Only one preload per player - the newest one wins
+                cancelPendingPreload(instance, "replaced");
+                
+                if (player.getPlaybackState() != Player.STATE_IDLE) {
+                    player.stop();
+                }
+                if (instance.playlistMode) {
+                    instance.playlistMode = false;
+                    player.setRepeatMode(Player.REPEAT_MODE_OFF);
+                }
+                
+                // Prepare without starting: media source created, first segment buffered, decoder configured
+                player.setPlayWhenReady(false);
+                authTokenRegistry.register(url, authToken);
+                setPlayerMediaItems(instance, Collections.singletonList(mediaItem));
+                
+                long startMs = android.os.SystemClock.elapsedRealtime();
+                instance.preloadedUrl = url;
+                instance.preloadCall = call;
+                instance.preloadListener = new Player.Listener() {
+                    @Override
+                    public void onPlaybackStateChanged(int playbackState) {
+                        if (playbackState != Player.STATE_READY || instance.preloadCall != call) {
+                            return;
+                        }
+                        long loadTimeMs = android.os.SystemClock.elapsedRealtime() - startMs;
+                        android.util.Log.d("ExoPlayerSignage", "⚡ Preload ready in " + loadTimeMs + "ms: " + url);
+                        clearPendingPreload(instance);
+                        
+                        JSObject result = new JSObject();
+                        result.put("status", "ready");
+                        result.put("loadTimeMs", loadTimeMs);
+                        call.resolve(result);
+                    }
+                    
+                    @Override
+                    public void onPlayerError(com.google.android.exoplayer2.PlaybackException error) {
+                        if (instance.preloadCall != call) {
+                            return;
+                        }
+                        android.util.Log.w("ExoPlayerSignage", "⚠️ Preload failed: " + url + " - " + error.getMessage());
+                        clearPendingPreload(instance);
+                        instance.preloadedUrl = null;
+                        call.reject("Error preloading: " + error.getMessage(), error);
+                    }
+                };
+                player.addListener(instance.preloadListener);
+                
+                android.util.Log.d("ExoPlayerSignage", "⏳ Preloading: " + url);
+                prepareWithinDecoderBudget(instance);
+            } catch (Exception e) {
+                clearPendingPreload(instance);
+                instance.preloadedUrl = null;
+                call.reject("Error preloading: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Detach the preload listener and forget the pending preload call.
+     */
+    private void clearPendingPreload(PlayerInstance instance) {
+        if (instance.preloadListener != null && instance.player != null) {
+            instance.player.removeListener(instance.preloadListener);
+        }
+        instance.preloadListener = null;
+        instance.preloadCall = null;
+    }
+
+    /**
+     * Settle a preload() call that is still waiting for STATE_READY, e.g. because play() started the
+     * media early or the player was released.
+     */
+    private void cancelPendingPreload(PlayerInstance instance, String status) {
+        PluginCall pendingCall = instance.preloadCall;
+        clearPendingPreload(instance);
+        if (pendingCall == null) {
+            return;
+        }
+        if ("released".equals(status)) {
+            pendingCall.reject("Player released before preload finished");
+        } else {
+            JSObject result = new JSObject();
+            result.put("status", status);
+            pendingCall.resolve(result);
+        }
+    }
+
+    @PluginMethod
+    public void pause(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            try {
+                instance.player.pause();
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Error pausing: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void stop(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            try {
+                decoderQueue.remove(instance);
+                instance.player.stop();
+                // For video players, keep SurfaceView associated - don't clear it
+                // Visibility is controlled by the app, not by the plugin
+                // Audio players should NEVER have a SurfaceView
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Error stopping: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void setVolume(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        Double volumeValue = call.getDouble("volume", 1.0);
+        float vol = volumeValue != null ? volumeValue.floatValue() : 1.0f;
+        
+        runOnPlaybackThread(() -> {
+            try {
+                instance.player.setVolume(vol);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Error setting volume: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void setVideoSurfaceVisibility(PluginCall call) {
+        Boolean visibleValue = call.getBoolean("visible", true);
+        boolean visible = visibleValue != null ? visibleValue : true;
+        
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null) {
+            call.reject("Activity not available");
+            return;
+        }
+        
+        activity.runOnUiThread(() -> {
+            try {
+                if (videoSurfaceView != null) {
+                    android.util.Log.d("ExoPlayerSignage", "🔧 setVideoSurfaceVisibility called: " + visible);
+                    android.util.Log.d("ExoPlayerSignage", "SurfaceView visibility BEFORE: " + 
+                        (videoSurfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
+                        videoSurfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
+                    android.util.Log.d("ExoPlayerSignage", "SurfaceView parent: " + 
+                        (videoSurfaceView.getParent() != null ? videoSurfaceView.getParent().getClass().getName() : "null"));
+                    android.util.Log.d("ExoPlayerSignage", "SurfaceView isShown: " + videoSurfaceView.isShown());
+                    
+                    videoSurfaceView.setVisibility(visible ? android.view.View.VISIBLE : android.view.View.INVISIBLE);
+                    
+                    android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility AFTER: " + 
+                        (visible ? "VISIBLE" : "INVISIBLE"));
+                    android.util.Log.d("ExoPlayerSignage", "SurfaceView isShown AFTER: " + videoSurfaceView.isShown());
+                    
+                    call.resolve();
+                } else {
+                    android.util.Log.e("ExoPlayerSignage", "❌ Video SurfaceView not created yet");
+                    call.reject("Video SurfaceView not created yet");
+                }
+            } catch (Exception e) {
+                android.util.Log.e("ExoPlayerSignage", "❌ Error setting SurfaceView visibility: " + e.getMessage(), e);
+                call.reject("Error setting SurfaceView visibility: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void hide(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null) {
+            call.reject("Activity not available");
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            try {
+                // Pause playback
+                if (instance.player != null) {
+                    instance.player.pause();
+                    android.util.Log.d("ExoPlayerSignage", "⏸️ Player paused in hide()");
                 }
-                
-                // Add player event listener for debugging
-                if ("video".equals(instance.type)) {
-                    player.addListener(new Player.Listener() {
-                        @Override
-                        public void onPlaybackStateChanged(int playbackState) {
-                            android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: Player playbackState changed to: " + getPlaybackStateString(playbackState));
-                            android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: Player isPlaying: " + player.isPlaying());
-                            android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: Player currentPosition: " + player.getCurrentPosition() + "ms");
-                            if (instance.surfaceView != null) {
-                                android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: SurfaceView visibility: " + 
-                                    (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                                     instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                                android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: SurfaceView isShown: " + instance.surfaceView.isShown());
-                                android.util.Log.d("ExoPlayerSignage", "🔄 DEBUG: SurfaceView dimensions: " + 
-                                    instance.surfaceView.getWidth() + "x" + instance.surfaceView.getHeight());
-                            }
-                        }
-                        
-                        @Override
-                        public void onIsPlayingChanged(boolean isPlaying) {
-                            android.util.Log.d("ExoPlayerSignage", "▶️ DEBUG: Player isPlaying changed to: " + isPlaying);
-                            android.util.Log.d("ExoPlayerSignage", "▶️ DEBUG: Player playbackState: " + getPlaybackStateString(player.getPlaybackState()));
-                            if (instance.surfaceView != null) {
-                                android.util.Log.d("ExoPlayerSignage", "▶️ DEBUG: SurfaceView visibility: " + 
-                                    (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                                     instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                            }
-                        }
-                    });
-                }
-                
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: About to call player.prepare()");
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state BEFORE prepare: " + getPlaybackStateString(player.getPlaybackState()));
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView visibility BEFORE prepare: " + 
-                        (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                         instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                }
-                
-                player.prepare();
-                
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state AFTER prepare: " + getPlaybackStateString(player.getPlaybackState()));
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView visibility AFTER prepare: " + 
-                        (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                         instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView isShown AFTER prepare: " + instance.surfaceView.isShown());
-                }
-                
-                // Ensure volume is set correctly (especially for audio after video)
-                if ("audio".equals(instance.type)) {
-                    player.setVolume(1.0f);
-                } else if ("video".equals(instance.type)) {
-                    player.setVolume(0.0f);
-                }
-                
-                // Start playback
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: About to call player.play()");
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state BEFORE play: " + getPlaybackStateString(player.getPlaybackState()));
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView visibility BEFORE play: " + 
-                        (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                         instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
+            } catch (Exception e) {
+                android.util.Log.w("ExoPlayerSignage", "⚠️ Could not pause player in hide(): " + e.getMessage());
+            }
+        });
+        
+        activity.runOnUiThread(() -> {
+            try {
+                hideVideoSurfaces(instance);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Error hiding SurfaceView: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Hide the SurfaceViews so no frozen frame shows (hide()).
+     * Note: This method should only be called from the UI thread (runOnUiThread).
+     */
+    private void hideVideoSurfaces(PlayerInstance instance) {
+        if (instance.imageSlides != null) {
+            instance.imageSlides.setVisible(false);
+        }
+        
+        // A zone is hidden on its own - the other zones and the shared SurfaceView stay as they are
+        VideoZone zone = instance.zone;
+        if (zone != null) {
+            zone.setVisible(false);
+            return;
+        }
+        
+        // For video players, hide the SurfaceView to prevent frozen frame from showing
+        // This is necessary when modal is shown - SurfaceView should be invisible
+        if ("video".equals(instance.type) && instance.surfaceView != null) {
+            instance.surfaceView.setVisibility(android.view.View.INVISIBLE);
+            android.util.Log.d("ExoPlayerSignage", "👁️ SurfaceView set to INVISIBLE in hide()");
+        }
+        
+        // Also hide the shared SurfaceView if it exists (for cases where player was released but SurfaceView remains)
+        if (videoSurfaceView != null) {
+            videoSurfaceView.setVisibility(android.view.View.INVISIBLE);
+            android.util.Log.d("ExoPlayerSignage", "👁️ Shared SurfaceView set to INVISIBLE in hide()");
+        }
+        
+        // Audio players should NEVER have a SurfaceView
+    }
+
+    @PluginMethod
+    public void show(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        android.app.Activity activity = getBridge().getActivity();
+        if (activity == null) {
+            call.reject("Activity not available");
+            return;
+        }
+        
+        if ("video".equals(instance.type)) {
+            // Associate SurfaceView with player (wait for SurfaceHolder if needed) and make it visible
+            activity.runOnUiThread(() -> {
+                attachVideoSurface(instance);
+                android.util.Log.d("ExoPlayerSignage", "👁️ SurfaceView set to VISIBLE in show()");
+            });
+        }
+        
+        runOnPlaybackThread(() -> {
+            try {
+                resumeOnShow(instance);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Error showing SurfaceView: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Start preloaded media or resume a paused/stopped video player (show()).
+     * Note: This method should only be called from the playback thread.
+     */
+    private void resumeOnShow(PlayerInstance instance) {
+        // Preloaded media (if any) starts now
+        cancelPendingPreload(instance, "played");
+        instance.preloadedUrl = null;
+        
+        // CRITICAL: Audio players should NEVER have a SurfaceView
+        if ("audio".equals(instance.type)) {
+            // Ensure no SurfaceView is associated for audio
+            if (instance.surfaceView != null) {
+                try {
+                    instance.player.clearVideoSurface();
+                } catch (Exception e) {
+                    // Ignore
                 }
-                
-                player.play();
-                
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player state AFTER play: " + getPlaybackStateString(player.getPlaybackState()));
-                android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: Player isPlaying AFTER play: " + player.isPlaying());
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView visibility AFTER play: " + 
-                        (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                         instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView isShown AFTER play: " + instance.surfaceView.isShown());
-                    android.util.Log.d("ExoPlayerSignage", "🔍 DEBUG: SurfaceView dimensions AFTER play: " + 
-                        instance.surfaceView.getWidth() + "x" + instance.surfaceView.getHeight());
+            }
+            return;
+        }
+        
+        // For video players, resume playback if needed
+        if ("video".equals(instance.type) && instance.player != null) {
+            // Check player state
+            int playbackState = instance.player.getPlaybackState();
+            boolean isPlaying = instance.player.isPlaying();
+            
+            // If player is in STATE_IDLE (after stop()), prepare and play
+            if (playbackState == Player.STATE_IDLE) {
+                android.util.Log.d("ExoPlayerSignage", "🔄 Player in STATE_IDLE, preparing and playing");
+                prepareWithinDecoderBudget(instance);
+                instance.player.play();
+            } else if (!isPlaying) {
+                // Player is paused - resume playback
+                android.util.Log.d("ExoPlayerSignage", "▶️ Player paused, resuming playback");
+                instance.player.play();
+            } else {
+                android.util.Log.d("ExoPlayerSignage", "✅ Player already playing");
+            }
+            
+            // Visibility is controlled by the app, but we ensure it's visible when show() is called
+        }
+    }
+
+    @PluginMethod
+    public void setBounds(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        if (!"video".equals(instance.type)) {
+            call.reject("bounds only apply to video players");
+            return;
+        }
+        
+        VideoBounds bounds;
+        try {
+            bounds = parseVideoBounds(call.getObject("bounds"));
+        } catch (IllegalArgumentException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        if (bounds == null) {
+            call.reject("bounds requerido");
+            return;
+        }
+        
+        runOnUiThread(() -> {
+            try {
+                // Moves (or creates) the zone - the player keeps playing
+                applyVideoBounds(instance, bounds);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Error setting bounds: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void executeBatch(PluginCall call) {
+        JSArray commandsArray = call.getArray("commands");
+        if (commandsArray == null || commandsArray.length() == 0) {
+            call.reject("commands requerido");
+            return;
+        }
+        
+        // Validate the whole list before anything is applied
+        List<BatchCommand> commands = new ArrayList<>();
+        for (int i = 0; i < commandsArray.length(); i++) {
+            org.json.JSONObject command = commandsArray.optJSONObject(i);
+            String op = command != null ? command.optString("op", null) : null;
+            String playerId = command != null ? command.optString("playerId", null) : null;
+            PlayerInstance instance = playerId != null ? players.get(playerId) : null;
+            String error = null;
+            if (command == null) {
+                error = "command must be an object";
+            } else if (!isBatchOp(op)) {
+                error = "unknown op: " + op;
+            } else if (playerId == null) {
+                error = "playerId requerido";
+            } else if (instance == null) {
+                error = "Player not found: " + playerId;
+            } else if ("play".equals(op) && command.optString("url", "").isEmpty()) {
+                error = "URL requerida";
+            } else if ("setVolume".equals(op) && !(command.opt("volume") instanceof Number)) {
+                error = "volume requerido";
+            } else if ("setBounds".equals(op) && command.optJSONObject("bounds") == null) {
+                error = "bounds requerido";
+            } else if (command.has("bounds") && !"video".equals(instance.type)) {
+                error = "bounds only apply to video players";
+            } else {
+                try {
+                    parseVideoBounds(command.optJSONObject("bounds"));
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
                 }
-                
-                // Schedule periodic status checks for video players
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    schedulePeriodicStatusCheck(instance);
+            }
+            if (error != null) {
+                call.reject("Invalid command " + i + ": " + error);
+                return;
+            }
+            commands.add(new BatchCommand(op, instance, command));
+        }
+        
+        // One pass on the playback thread, then one UI post for all surface changes
+        runOnPlaybackThread(() -> {
+            // All or nothing: media that may not play in the cache mode rejects the batch before any
+            // command is applied, so the scene is never left half changed
+            for (int i = 0; i < commands.size(); i++) {
+                String uncachedUrl = findUncachedMedia(commands.get(i));
+                if (uncachedUrl != null) {
+                    call.reject("Command " + i + ": media not fully cached: " + uncachedUrl, "NOT_CACHED");
+                    return;
+                }
+            }
+            
+            List<Runnable> uiWork = new ArrayList<>();
+            JSArray results = new JSArray();
+            int failed = 0;
+            for (BatchCommand command : commands) {
+                JSObject result = new JSObject();
+                result.put("op", command.op);
+                result.put("playerId", command.instance.id);
+                try {
+                    if (!players.containsKey(command.instance.id)) {
+                        throw new CommandException("Player not found: " + command.instance.id, null);
+                    }
+                    applyBatchCommand(command, uiWork);
+                    result.put("ok", true);
+                } catch (CommandException e) {
+                    failed++;
+                    result.put("ok", false);
+                    result.put("error", e.getMessage());
+                    if (e.code != null) {
+                        result.put("code", e.code);
+                    }
+                } catch (Exception e) {
+                    failed++;
+                    result.put("ok", false);
+                    result.put("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                }
+                results.put(result);
+            }
+            runUiWork(uiWork);
+            android.util.Log.d("ExoPlayerSignage", "📦 Batch applied: " + commands.size() + " commands, " + failed + " failed");
+            
+            JSObject data = new JSObject();
+            data.put("results", results);
+            data.put("failed", failed);
+            call.resolve(data);
+        });
+    }
+
+    /**
+     * URL of a batch command's media that is not fully cached while cacheOnly forbids the network,
+     * or null if the command may run. Preloaded media is already prepared.
+     * Note: This method should only be called from the playback thread.
+     */
+    private String findUncachedMedia(BatchCommand command) {
+        if (!"play".equals(command.op) || !"cacheOnly".equals(cacheMode)) {
+            return null;
+        }
+        PlayerInstance instance = command.instance;
+        String url = command.options.optString("url");
+        if (url.equals(instance.preloadedUrl) && instance.player.getPlaybackState() != Player.STATE_IDLE) {
+            return null;
+        }
+        MediaItem mediaItem = buildMediaItem(url, null, command.options.optString("cacheKey", null));
+        if (isFullyCached(getCacheKey(mediaItem)) || getDownloadedMediaItem(mediaItem) != null) {
+            return null;
+        }
+        return url;
+    }
+
+    private boolean isBatchOp(String op) {
+        return "play".equals(op) || "pause".equals(op) || "stop".equals(op) || "setVolume".equals(op)
+                || "hide".equals(op) || "show".equals(op) || "setBounds".equals(op);
+    }
+
+    /**
+     * Apply one executeBatch command, as the plugin method of the same name would.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void applyBatchCommand(BatchCommand command, List<Runnable> uiWork) throws CommandException {
+        PlayerInstance instance = command.instance;
+        org.json.JSONObject options = command.options;
+        VideoBounds bounds = parseVideoBounds(options.optJSONObject("bounds"));
+        if (bounds != null) {
+            // Zones move before any surface is attached (UI work runs in order)
+            uiWork.add(() -> applyVideoBounds(instance, bounds));
+        }
+        switch (command.op) {
+            case "setBounds":
+                break;
+            case "play":
+                startPlayback(instance, options.optString("url"), options.optString("cacheKey", null),
+                        options.optString("authToken", null), uiWork);
+                break;
+            case "pause":
+                instance.player.pause();
+                break;
+            case "stop":
+                decoderQueue.remove(instance);
+                instance.player.stop();
+                break;
+            case "setVolume":
+                instance.player.setVolume((float) options.optDouble("volume", 1.0));
+                break;
+            case "hide":
+                instance.player.pause();
+                uiWork.add(() -> hideVideoSurfaces(instance));
+                break;
+            case "show":
+                if ("video".equals(instance.type)) {
+                    uiWork.add(() -> attachVideoSurface(instance));
                 }
+                resumeOnShow(instance);
+                break;
+            default:
+                throw new CommandException("unknown op: " + command.op, null);
+        }
+    }
+
+    @PluginMethod
+    public void setSchedule(PluginCall call) {
+        String playerId = call.getString("playerId");
+        JSArray entriesArray = call.getArray("entries");
+        
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        if (entriesArray == null) {
+            call.reject("entries requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        String timeZoneId = call.getString("timeZone");
+        java.util.TimeZone timeZone = timeZoneId != null ? java.util.TimeZone.getTimeZone(timeZoneId) : java.util.TimeZone.getDefault();
+        String authToken = call.getString("authToken");
+        
+        List<ScheduleEngine.Entry> entries = new ArrayList<>();
+        try {
+            for (int i = 0; i < entriesArray.length(); i++) {
+                entries.add(parseScheduleEntry(entriesArray.getJSONObject(i), i));
+            }
+        } catch (Exception e) {
+            call.reject("Invalid schedule: " + e.getMessage());
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            try {
+                stopSchedule(instance);
+                instance.schedule = new ScheduleEngine(playbackHandler, timeZone, entries,
+                        (entry, scheduledAtMs) -> startScheduleEntry(instance, entry, scheduledAtMs, authToken));
+                instance.schedule.start();
+                android.util.Log.d("ExoPlayerSignage", "🗓️ Schedule set for " + playerId + " (" + entries.size() + " entries)");
                 
-                call.resolve();
+                JSObject result = new JSObject();
+                result.put("entryCount", entries.size());
+                ScheduleEngine.Entry active = instance.schedule.getActiveEntry();
+                if (active != null) {
+                    result.put("activeEntryId", active.id);
+                }
+                call.resolve(result);
             } catch (Exception e) {
-                call.reject("Error playing: " + e.getMessage(), e);
+                call.reject("Error setting schedule: " + e.getMessage(), e);
             }
         });
     }
 
     @PluginMethod
-    public void pause(PluginCall call) {
+    public void clearSchedule(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId requerido");
+            return;
+        }
+        
+        PlayerInstance instance = players.get(playerId);
+        if (instance == null) {
+            call.reject("Player not found: " + playerId);
+            return;
+        }
+        
+        // Whatever is playing keeps playing
+        runOnPlaybackThread(() -> {
+            stopSchedule(instance);
+            call.resolve();
+        });
+    }
+
+    /**
+     * Parse one schedule entry: { id?, priority?, startAt?, endAt?, startTime?, endTime?, days?, items, loop? }.
+     */
+    private ScheduleEngine.Entry parseScheduleEntry(org.json.JSONObject entry, int index) throws org.json.JSONException {
+        String id = entry.optString("id", "entry-" + index);
+        
+        int startSecond = -1;
+        int endSecond = -1;
+        if (entry.has("startTime") || entry.has("endTime")) {
+            startSecond = ScheduleEngine.parseTimeOfDay(entry.optString("startTime", "00:00"));
+            endSecond = ScheduleEngine.parseTimeOfDay(entry.optString("endTime", "00:00"));
+            if (startSecond < 0 || endSecond < 0) {
+                throw new IllegalArgumentException("startTime/endTime must be HH:mm[:ss] in entries[" + index + "]");
+            }
+        }
+        
+        boolean[] days = null;
+        org.json.JSONArray daysArray = entry.optJSONArray("days");
+        if (daysArray != null) {
+            days = new boolean[7];
+            for (int i = 0; i < daysArray.length(); i++) {
+                int day = daysArray.getInt(i);
+                if (day < 0 || day > 6) {
+                    throw new IllegalArgumentException("days must be 0 (Sunday) to 6 in entries[" + index + "]");
+                }
+                days[day] = true;
+            }
+        }
+        
+        org.json.JSONArray itemsArray = entry.optJSONArray("items");
+        if (itemsArray == null || itemsArray.length() == 0) {
+            throw new IllegalArgumentException("items requerido en entries[" + index + "]");
+        }
+        
+        return new ScheduleEngine.Entry(
+                id,
+                entry.optInt("priority", 0),
+                entry.optLong("startAt", 0),
+                entry.optLong("endAt", 0),
+                startSecond,
+                endSecond,
+                days,
+                parsePlaylistItems(itemsArray),
+                entry.optBoolean("loop", true));
+    }
+
+    /**
+     * Start the entry that became active (or stop at the end of the last window) and report it.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void startScheduleEntry(PlayerInstance instance, ScheduleEngine.Entry entry, long scheduledAtMs, String authToken) {
+        int itemCount = 0;
+        try {
+            if (entry != null) {
+                // Nothing playable (cacheOnly): the previous content keeps playing
+                itemCount = startNativePlaylist(instance, entry.items, entry.loop, authToken);
+            } else {
+                instance.playlistMode = false;
+                decoderQueue.remove(instance);
+                instance.player.stop();
+            }
+        } catch (Exception e) {
+            android.util.Log.e("ExoPlayerSignage", "❌ Could not start schedule entry: " + e.getMessage(), e);
+        }
+        long startedAtMs = System.currentTimeMillis();
+        android.util.Log.d("ExoPlayerSignage", "🗓️ Schedule entry " + (entry != null ? entry.id : "(none)")
+                + " started " + (startedAtMs - scheduledAtMs) + "ms after its time");
+        
+        // Reporting only - playback never waits for the WebView
+        JSObject data = new JSObject();
+        data.put("playerId", instance.id);
+        if (entry != null) {
+            data.put("entryId", entry.id);
+            data.put("itemCount", itemCount);
+        }
+        data.put("scheduledAtMs", scheduledAtMs);
+        data.put("startedAtMs", startedAtMs);
+        data.put("driftMs", startedAtMs - scheduledAtMs);
+        notifyListeners("scheduleEntryChanged", data);
+    }
+
+    /**
+     * Stop the player's schedule, if it has one.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void stopSchedule(PlayerInstance instance) {
+        if (instance.schedule != null) {
+            instance.schedule.stop();
+            instance.schedule = null;
+        }
+    }
+
+    @PluginMethod
+    public void releasePlayer(PluginCall call) {
         String playerId = call.getString("playerId");
         if (playerId == null) {
             call.reject("playerId requerido");
@@ -836,266 +2792,751 @@ public class ExoPlayerSignagePlugin extends Plugin {
             return;
         }
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
+        runOnPlaybackThread(() -> {
+            stopSchedule(instance);
+            cancelPendingPreload(instance, "released");
+            if (instance.player != null) {
+                // Keep the player warm for the next createPlayer
+                // (also clears the pending/owning player of the SurfaceView if it is this one)
+                returnPlayerToPool(instance);
+            }
+            // Don't remove SurfaceView - it's shared and reused
+            // Visibility is controlled by the app
+            players.remove(playerId);
+            eventBatcher.removeUpdates(playerId + "/");
+            call.resolve();
+        });
+    }
+
+    @PluginMethod
+    public void precache(PluginCall call) {
+        JSArray urlsArray = call.getArray("urls");
+        if (urlsArray == null || urlsArray.length() == 0) {
+            call.reject("urls requerido");
             return;
         }
         
-        activity.runOnUiThread(() -> {
-            try {
-                instance.player.pause();
-                call.resolve();
-            } catch (Exception e) {
-                call.reject("Error pausing: " + e.getMessage(), e);
+        // Entries are plain URLs or { url, cacheKey } objects
+        List<String> urls = new ArrayList<>();
+        List<String> cacheKeys = new ArrayList<>();
+        for (int i = 0; i < urlsArray.length(); i++) {
+            org.json.JSONObject item = urlsArray.optJSONObject(i);
+            urls.add(item != null ? item.optString("url", null) : urlsArray.optString(i, null));
+            cacheKeys.add(item != null ? item.optString("cacheKey", null) : null);
+        }
+        
+        if (precacheManager == null) {
+            call.reject("Cache not available");
+            return;
+        }
+        
+        String authToken = call.getString("authToken");
+        PrecacheManager.Callback callback = createPrecacheCallback();
+        
+        whenCacheReady(call, () -> {
+            int queued = 0;
+            for (int i = 0; i < urls.size(); i++) {
+                String url = urls.get(i);
+                if (url == null || url.isEmpty()) {
+                    continue;
+                }
+                authTokenRegistry.register(url, authToken);
+                if (precacheManager.enqueue(url, cacheKeys.get(i), backgroundCacheDataSourceFactory, callback)) {
+                    queued++;
+                } else {
+                    android.util.Log.d("ExoPlayerSignage", "⏭️ Precache already in progress: " + url);
+                }
             }
+            
+            JSObject result = new JSObject();
+            result.put("queued", queued);
+            call.resolve(result);
         });
     }
 
     @PluginMethod
-    public void stop(PluginCall call) {
-        String playerId = call.getString("playerId");
-        if (playerId == null) {
-            call.reject("playerId requerido");
+    public void download(PluginCall call) {
+        String url = call.getString("url");
+        if (url == null || url.isEmpty()) {
+            call.reject("URL requerida");
             return;
         }
+        String id = call.getString("id", url);
+        String cacheKey = call.getString("cacheKey");
+        String authToken = call.getString("authToken");
+        Integer maxVideoHeight = call.getInt("maxVideoHeight");
+        Integer maxVideoBitrate = call.getInt("maxVideoBitrate");
         
-        PlayerInstance instance = players.get(playerId);
-        if (instance == null) {
-            call.reject("Player not found: " + playerId);
+        whenCacheReady(call, () -> runOnPlaybackThread(() -> {
+            OfflineDownloadManager downloads = offlineDownloads;
+            if (downloads == null) {
+                call.reject("Downloads not available");
+                return;
+            }
+            try {
+                authTokenRegistry.register(url, authToken);
+                TrackSelectionParameters parameters = buildDownloadTrackSelection(maxVideoHeight, maxVideoBitrate);
+                downloads.download(id, buildMediaItem(url, id, cacheKey), parameters, new OfflineDownloadManager.PrepareCallback() {
+                    @Override
+                    public void onQueued(DownloadRequest request) {
+                        JSObject result = new JSObject();
+                        result.put("id", request.id);
+                        result.put("streamCount", request.streamKeys.size());
+                        call.resolve(result);
+                    }
+                    
+                    @Override
+                    public void onError(String error) {
+                        call.reject("Error preparing download: " + error);
+                    }
+                });
+            } catch (Exception e) {
+                call.reject("Error starting download: " + e.getMessage(), e);
+            }
+        }));
+    }
+
+    @PluginMethod
+    public void removeDownload(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null) {
+            call.reject("id requerido");
             return;
         }
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
+        whenCacheReady(call, () -> runOnPlaybackThread(() -> {
+            OfflineDownloadManager downloads = offlineDownloads;
+            if (downloads == null) {
+                call.reject("Downloads not available");
+                return;
+            }
+            // Completion is reported by the downloadRemoved event
+            downloads.remove(id);
+            call.resolve();
+        }));
+    }
+
+    @PluginMethod
+    public void getDownloads(PluginCall call) {
+        whenCacheReady(call, () -> runOnPlaybackThread(() -> {
+            OfflineDownloadManager downloads = offlineDownloads;
+            if (downloads == null) {
+                call.reject("Downloads not available");
+                return;
+            }
+            JSArray list = new JSArray();
+            for (Download download : downloads.getDownloads()) {
+                list.put(buildDownloadInfo(download, null));
+            }
+            JSObject result = new JSObject();
+            result.put("downloads", list);
+            call.resolve(result);
+        }));
+    }
+
+    /**
+     * Tracks to download: one rendition, the best within the given limits. Without limits, the
+     * smallest one filling the display (see applyTrackSelectionConstraints).
+     */
+    private TrackSelectionParameters buildDownloadTrackSelection(Integer maxVideoHeight, Integer maxVideoBitrate) {
+        DefaultTrackSelector.Parameters.Builder parameters = DownloadHelper.getDefaultTrackSelectorParameters(getContext())
+                .buildUpon()
+                .setForceHighestSupportedBitrate(true);
+        if (maxVideoHeight != null) {
+            parameters.setMaxVideoSize(Integer.MAX_VALUE, maxVideoHeight);
+        }
+        if (maxVideoBitrate != null) {
+            parameters.setMaxVideoBitrate(maxVideoBitrate);
+        }
+        if (maxVideoHeight == null && maxVideoBitrate == null) {
+            android.util.DisplayMetrics metrics = getContext().getResources().getDisplayMetrics();
+            parameters.setViewportSize(metrics.widthPixels, metrics.heightPixels, false);
+        }
+        return parameters.build();
+    }
+
+    /**
+     * Listener reporting downloads as downloadProgress/downloadRemoved events.
+     */
+    private OfflineDownloadManager.Listener createDownloadListener() {
+        return new OfflineDownloadManager.Listener() {
+            @Override
+            public void onDownloadUpdate(Download download, String error) {
+                notifyListeners("downloadProgress", buildDownloadInfo(download, error));
+            }
+            
+            @Override
+            public void onDownloadRemoved(Download download) {
+                JSObject data = new JSObject();
+                data.put("id", download.request.id);
+                data.put("url", download.request.uri.toString());
+                notifyListeners("downloadRemoved", data);
+            }
+        };
+    }
+
+    private JSObject buildDownloadInfo(Download download, String error) {
+        JSObject info = new JSObject();
+        info.put("id", download.request.id);
+        info.put("url", download.request.uri.toString());
+        info.put("state", getDownloadStateString(download.state));
+        info.put("streamCount", download.request.streamKeys.size());
+        info.put("bytesDownloaded", download.getBytesDownloaded());
+        if (download.contentLength != C.LENGTH_UNSET) {
+            info.put("contentLength", download.contentLength);
+        }
+        if (download.getPercentDownloaded() != C.PERCENTAGE_UNSET) {
+            info.put("percentDownloaded", download.getPercentDownloaded());
+        }
+        if (error != null) {
+            info.put("error", error);
+        }
+        return info;
+    }
+
+    private String getDownloadStateString(int state) {
+        switch (state) {
+            case Download.STATE_QUEUED:
+                return "queued";
+            case Download.STATE_STOPPED:
+                return "stopped";
+            case Download.STATE_DOWNLOADING:
+                return "downloading";
+            case Download.STATE_COMPLETED:
+                return "completed";
+            case Download.STATE_FAILED:
+                return "failed";
+            case Download.STATE_REMOVING:
+                return "removing";
+            case Download.STATE_RESTARTING:
+                return "restarting";
+            default:
+                return "unknown";
+        }
+    }
+
+    /**
+     * Callback reporting precache progress and completion as precacheProgress/precacheComplete events.
+     */
+    private PrecacheManager.Callback createPrecacheCallback() {
+        return new PrecacheManager.Callback() {
+            @Override
+            public void onProgress(String url, long bytesCached, long contentLength) {
+                JSObject data = new JSObject();
+                data.put("url", url);
+                data.put("bytesCached", bytesCached);
+                data.put("contentLength", contentLength);
+                if (contentLength > 0) {
+                    data.put("progress", (double) bytesCached / contentLength);
+                }
+                notifyListeners("precacheProgress", data);
+            }
+            
+            @Override
+            public void onComplete(String url, boolean success, boolean cancelled, long bytesCached, String error) {
+                JSObject data = new JSObject();
+                data.put("url", url);
+                data.put("success", success);
+                data.put("cancelled", cancelled);
+                data.put("bytesCached", bytesCached);
+                if (error != null) {
+                    data.put("error", error);
+                }
+                notifyListeners("precacheComplete", data);
+            }
+        };
+    }
+
+    @PluginMethod
+    public void setCacheKeyRules(PluginCall call) {
+        JSArray paramsArray = call.getArray("ignoredQueryParams");
+        List<String> params = new ArrayList<>();
+        if (paramsArray != null) {
+            for (int i = 0; i < paramsArray.length(); i++) {
+                String param = paramsArray.optString(i, null);
+                if (param != null) {
+                    params.add(param);
+                }
+            }
+        }
+        
+        cacheKeyFactory.setIgnoredQueryParams(params);
+        android.util.Log.d("ExoPlayerSignage", "🔑 Cache key ignored query params: " + cacheKeyFactory.getIgnoredQueryParams());
+        
+        JSObject result = new JSObject();
+        result.put("ignoredQueryParams", new JSArray(cacheKeyFactory.getIgnoredQueryParams()));
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void cancelPrecache(PluginCall call) {
+        if (precacheManager == null) {
+            call.reject("Cache not available");
             return;
         }
         
-        activity.runOnUiThread(() -> {
+        JSArray urlsArray = call.getArray("urls");
+        JSArray cancelled = new JSArray();
+        if (urlsArray == null || urlsArray.length() == 0) {
+            for (String url : precacheManager.cancelAll()) {
+                cancelled.put(url);
+            }
+        } else {
+            List<String> urls;
             try {
-                instance.player.stop();
-                // For video players, keep SurfaceView associated - don't clear it
-                // Visibility is controlled by the app, not by the plugin
-                // Audio players should NEVER have a SurfaceView
-                call.resolve();
+                urls = urlsArray.toList();
             } catch (Exception e) {
-                call.reject("Error stopping: " + e.getMessage(), e);
+                call.reject("Invalid urls: " + e.getMessage(), e);
+                return;
+            }
+            for (String url : urls) {
+                if (precacheManager.cancel(url)) {
+                    cancelled.put(url);
+                }
+            }
+        }
+        
+        JSObject result = new JSObject();
+        result.put("cancelled", cancelled);
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void getCacheStatus(PluginCall call) {
+        // Answers right away, unlike the calls that wait for the cache
+        boolean opened;
+        synchronized (pendingCacheCommands) {
+            opened = cacheOpened;
+        }
+        
+        JSObject result = new JSObject();
+        result.put("ready", opened && cache != null);
+        if (opened) {
+            result.put("openDurationMs", cacheOpenDurationMs);
+        }
+        if (cacheOpenError != null) {
+            result.put("error", cacheOpenError);
+        }
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void getCacheStats(PluginCall call) {
+        whenCacheReady(call, () -> {
+            SimpleCache currentCache = cache;
+            long hitBytes = cacheStats.getHitBytes();
+            long missBytes = cacheStats.getMissBytes();
+            
+            JSObject result = new JSObject();
+            result.put("usedBytes", currentCache.getCacheSpace());
+            result.put("budgetBytes", cacheEvictor.getBudgetBytes());
+            result.put("keyCount", currentCache.getKeys().size());
+            result.put("freeDiskBytes", getContext().getCacheDir().getUsableSpace());
+            result.put("hitBytes", hitBytes);
+            result.put("missBytes", missBytes);
+            result.put("hitRatio", hitBytes + missBytes > 0 ? (double) hitBytes / (hitBytes + missBytes) : 0);
+            result.put("ignoredReads", cacheStats.getIgnoredReads());
+            result.put("openDurationMs", cacheOpenDurationMs);
+            
+            Boolean resetValue = call.getBoolean("reset", false);
+            if (resetValue != null && resetValue) {
+                cacheStats.reset();
             }
+            call.resolve(result);
         });
     }
 
     @PluginMethod
-    public void setVolume(PluginCall call) {
-        String playerId = call.getString("playerId");
-        if (playerId == null) {
-            call.reject("playerId requerido");
+    public void setCacheMode(PluginCall call) {
+        String mode = call.getString("mode");
+        if (!isValidCacheMode(mode)) {
+            call.reject("Invalid mode. Must be 'network', 'offlineFirst' or 'cacheOnly'");
             return;
         }
         
-        PlayerInstance instance = players.get(playerId);
-        if (instance == null) {
-            call.reject("Player not found: " + playerId);
+        // Applies to the next play()/preload()/playPlaylist()
+        cacheMode = mode;
+        android.util.Log.d("ExoPlayerSignage", "📴 Cache mode: " + mode);
+        
+        JSObject result = new JSObject();
+        result.put("mode", mode);
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void configureCacheBudget(PluginCall call) {
+        if (cacheEvictor == null) {
+            call.reject("Cache not available");
             return;
         }
         
-        Double volumeValue = call.getDouble("volume", 1.0);
-        float vol = volumeValue != null ? volumeValue.floatValue() : 1.0f;
+        Long minValue = call.getLong("minBytes", AdaptiveCacheEvictor.DEFAULT_MIN_BYTES);
+        Long maxValue = call.getLong("maxBytes", AdaptiveCacheEvictor.DEFAULT_MAX_BYTES);
+        Integer percentValue = call.getInt("freeSpacePercent", AdaptiveCacheEvictor.DEFAULT_FREE_SPACE_PERCENT);
+        Long reserveValue = call.getLong("reserveBytes", AdaptiveCacheEvictor.DEFAULT_RESERVE_BYTES);
+        Long intervalValue = call.getLong("checkIntervalMs", AdaptiveCacheEvictor.DEFAULT_CHECK_INTERVAL_MS);
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
+        long minBytes = minValue != null ? minValue : AdaptiveCacheEvictor.DEFAULT_MIN_BYTES;
+        long maxBytes = maxValue != null ? maxValue : AdaptiveCacheEvictor.DEFAULT_MAX_BYTES;
+        int percent = percentValue != null ? percentValue : AdaptiveCacheEvictor.DEFAULT_FREE_SPACE_PERCENT;
+        long reserveBytes = reserveValue != null ? reserveValue : AdaptiveCacheEvictor.DEFAULT_RESERVE_BYTES;
+        long intervalMs = intervalValue != null ? intervalValue : AdaptiveCacheEvictor.DEFAULT_CHECK_INTERVAL_MS;
+        
+        if (percent < 0 || percent > 100) {
+            call.reject("freeSpacePercent must be between 0 and 100");
+            return;
+        }
+        if (maxBytes > 0 && maxBytes < minBytes) {
+            call.reject("maxBytes must be >= minBytes");
             return;
         }
         
-        activity.runOnUiThread(() -> {
-            try {
-                instance.player.setVolume(vol);
-                call.resolve();
-            } catch (Exception e) {
-                call.reject("Error setting volume: " + e.getMessage(), e);
+        // The evictor trims any excess in the background
+        cacheEvictor.configure(minBytes, maxBytes, percent, reserveBytes, intervalMs);
+        android.util.Log.d("ExoPlayerSignage", "💾 Cache budget: " + cacheEvictor.getBudgetBytes() + " bytes");
+        
+        JSObject result = new JSObject();
+        result.put("budgetBytes", cacheEvictor.getBudgetBytes());
+        result.put("usedBytes", cacheEvictor.getCurrentSize());
+        result.put("freeDiskBytes", getContext().getCacheDir().getUsableSpace());
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void pin(PluginCall call) {
+        JSArray urlsArray = call.getArray("urls");
+        if (urlsArray == null || urlsArray.length() == 0) {
+            call.reject("urls requerido");
+            return;
+        }
+        
+        if (cacheEvictor == null) {
+            call.reject("Cache not available");
+            return;
+        }
+        
+        List<String> keys = getCacheKeys(urlsArray);
+        cacheEvictor.pin(keys);
+        android.util.Log.d("ExoPlayerSignage", "📌 Pinned " + keys.size() + " cache keys");
+        
+        JSObject result = new JSObject();
+        result.put("pinned", new JSArray(keys));
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void unpin(PluginCall call) {
+        if (cacheEvictor == null) {
+            call.reject("Cache not available");
+            return;
+        }
+        
+        JSArray urlsArray = call.getArray("urls");
+        List<String> keys;
+        if (urlsArray == null || urlsArray.length() == 0) {
+            keys = new ArrayList<>(cacheEvictor.unpinAll());
+        } else {
+            keys = getCacheKeys(urlsArray);
+            cacheEvictor.unpin(keys);
+        }
+        android.util.Log.d("ExoPlayerSignage", "📌 Unpinned " + keys.size() + " cache keys");
+        
+        JSObject result = new JSObject();
+        result.put("unpinned", new JSArray(keys));
+        call.resolve(result);
+    }
+
+    /**
+     * Cache keys of an array of plain URLs or { url, cacheKey } objects.
+     */
+    private List<String> getCacheKeys(JSArray urlsArray) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < urlsArray.length(); i++) {
+            org.json.JSONObject item = urlsArray.optJSONObject(i);
+            String url = item != null ? item.optString("url", null) : urlsArray.optString(i, null);
+            if (url == null || url.isEmpty()) {
+                continue;
             }
-        });
+            keys.add(getCacheKey(url, item != null ? item.optString("cacheKey", null) : null));
+        }
+        return keys;
     }
 
     @PluginMethod
-    public void setVideoSurfaceVisibility(PluginCall call) {
-        Boolean visibleValue = call.getBoolean("visible", true);
-        boolean visible = visibleValue != null ? visibleValue : true;
+    public void getCacheEntries(PluginCall call) {
+        whenCacheReady(call, () -> {
+            SimpleCache currentCache = cache;
+            JSArray entries = new JSArray();
+            JSArray urlsArray = call.getArray("urls");
+            if (urlsArray == null || urlsArray.length() == 0) {
+                // Everything in the cache (keys only - the URL is not stored)
+                for (String key : currentCache.getKeys()) {
+                    entries.put(buildCacheEntry(currentCache, key, null));
+                }
+            } else {
+                // Entries are plain URLs or { url, cacheKey } objects, as in precache()
+                for (int i = 0; i < urlsArray.length(); i++) {
+                    org.json.JSONObject item = urlsArray.optJSONObject(i);
+                    String url = item != null ? item.optString("url", null) : urlsArray.optString(i, null);
+                    if (url == null || url.isEmpty()) {
+                        continue;
+                    }
+                    String cacheKey = item != null ? item.optString("cacheKey", null) : null;
+                    entries.put(buildCacheEntry(currentCache, getCacheKey(url, cacheKey), url));
+                }
+            }
+            
+            JSObject result = new JSObject();
+            result.put("entries", entries);
+            call.resolve(result);
+        });
+    }
+
+    /**
+     * Cached bytes vs content length of a cache key.
+     */
+    private JSObject buildCacheEntry(SimpleCache currentCache, String key, String url) {
+        long cachedBytes = 0;
+        for (com.google.android.exoplayer2.upstream.cache.CacheSpan span : currentCache.getCachedSpans(key)) {
+            cachedBytes += span.length;
+        }
+        long contentLength = com.google.android.exoplayer2.upstream.cache.ContentMetadata.getContentLength(
+                currentCache.getContentMetadata(key));
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
+        JSObject entry = new JSObject();
+        entry.put("key", key);
+        if (url != null) {
+            entry.put("url", url);
+        }
+        entry.put("cachedBytes", cachedBytes);
+        entry.put("contentLength", contentLength);
+        entry.put("fullyCached", contentLength != C.LENGTH_UNSET && cachedBytes >= contentLength);
+        if (cacheEvictor != null) {
+            entry.put("pinned", cacheEvictor.isPinned(key));
+            entry.put("playCount", cacheEvictor.getPlayCount(key));
+        }
+        return entry;
+    }
+
+    @PluginMethod
+    public void verifyCache(PluginCall call) {
+        String repair = call.getString("repair", CacheVerifier.REPAIR_REMOVE);
+        if (!CacheVerifier.REPAIR_NONE.equals(repair) && !CacheVerifier.REPAIR_REMOVE.equals(repair)
+                && !CacheVerifier.REPAIR_REFETCH.equals(repair)) {
+            call.reject("Invalid repair. Must be 'none', 'remove' or 'refetch'");
             return;
         }
         
-        activity.runOnUiThread(() -> {
-            try {
-                if (videoSurfaceView != null) {
-                    android.util.Log.d("ExoPlayerSignage", "🔧 setVideoSurfaceVisibility called: " + visible);
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView visibility BEFORE: " + 
-                        (videoSurfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                        videoSurfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView parent: " + 
-                        (videoSurfaceView.getParent() != null ? videoSurfaceView.getParent().getClass().getName() : "null"));
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView isShown: " + videoSurfaceView.isShown());
-                    
-                    videoSurfaceView.setVisibility(visible ? android.view.View.VISIBLE : android.view.View.INVISIBLE);
-                    
-                    android.util.Log.d("ExoPlayerSignage", "✅ SurfaceView visibility AFTER: " + 
-                        (visible ? "VISIBLE" : "INVISIBLE"));
-                    android.util.Log.d("ExoPlayerSignage", "SurfaceView isShown AFTER: " + videoSurfaceView.isShown());
-                    
-                    call.resolve();
-                } else {
-                    android.util.Log.e("ExoPlayerSignage", "❌ Video SurfaceView not created yet");
-                    call.reject("Video SurfaceView not created yet");
+        CacheVerifier.Options options = new CacheVerifier.Options();
+        options.repair = repair;
+        Boolean includeIncompleteValue = call.getBoolean("includeIncomplete", false);
+        options.includeIncomplete = includeIncompleteValue != null && includeIncompleteValue;
+        Boolean checkOriginValue = call.getBoolean("checkOrigin", false);
+        options.checkOrigin = checkOriginValue != null && checkOriginValue;
+        
+        // URLs of the keys (plain URLs or { url, cacheKey } objects) for origin checks and re-downloads
+        JSArray urlsArray = call.getArray("urls");
+        if (urlsArray != null) {
+            for (int i = 0; i < urlsArray.length(); i++) {
+                org.json.JSONObject item = urlsArray.optJSONObject(i);
+                String url = item != null ? item.optString("url", null) : urlsArray.optString(i, null);
+                if (url != null && !url.isEmpty()) {
+                    options.urlsByKey.put(getCacheKey(url, item != null ? item.optString("cacheKey", null) : null), url);
                 }
-            } catch (Exception e) {
-                android.util.Log.e("ExoPlayerSignage", "❌ Error setting SurfaceView visibility: " + e.getMessage(), e);
-                call.reject("Error setting SurfaceView visibility: " + e.getMessage(), e);
             }
-        });
+        }
+        String authToken = call.getString("authToken");
+        
+        whenCacheReady(call, () -> runOnPlaybackThread(() -> {
+            // Leave alone whatever players have loaded and whatever is being downloaded, now and
+            // again right before a key is removed (a player may have started on it meanwhile)
+            options.excludedKeys.addAll(getCacheKeysInUse());
+            options.usageCheck = this::isCacheKeyInUse;
+            
+            SimpleCache currentCache = cache;
+            CacheVerifier verifier = cacheVerifier;
+            if (currentCache == null || verifier == null) {
+                call.reject("Cache not available");
+                return;
+            }
+            
+            PrecacheManager.Callback precacheCallback = createPrecacheCallback();
+            // Origin checks are background traffic too - capped like precache and downloads
+            boolean started = verifier.start(currentCache, options,
+                    new ThrottledDataSource.Factory(upstreamDataSourceFactory, backgroundThrottle),
+                    (url, cacheKey) -> {
+                        PrecacheManager manager = precacheManager;
+                        if (manager != null) {
+                            authTokenRegistry.register(url, authToken);
+                            manager.enqueue(url, cacheKey, backgroundCacheDataSourceFactory, precacheCallback);
+                        }
+                    },
+                    result -> {
+                        JSArray issues = new JSArray();
+                        for (CacheVerifier.Issue issue : result.issues) {
+                            JSObject item = new JSObject();
+                            item.put("key", issue.key);
+                            if (issue.url != null) {
+                                item.put("url", issue.url);
+                            }
+                            item.put("issue", issue.type);
+                            item.put("repaired", issue.repaired);
+                            issues.put(item);
+                        }
+                        
+                        JSObject data = new JSObject();
+                        data.put("checkedKeys", result.checkedKeys);
+                        data.put("skippedKeys", result.skippedKeys);
+                        data.put("removedKeys", result.removedKeys);
+                        data.put("refetchQueued", result.refetchQueued);
+                        data.put("durationMs", result.durationMs);
+                        data.put("cancelled", result.cancelled);
+                        data.put("issues", issues);
+                        notifyListeners("cacheVerified", data);
+                    });
+            
+            if (!started) {
+                call.reject("Cache verification already running");
+                return;
+            }
+            JSObject result = new JSObject();
+            result.put("started", true);
+            call.resolve(result);
+        }));
+    }
+
+    /**
+     * Cache keys of the media loaded in players, queued or running precache and active offline downloads.
+     * Note: Must be called on the playback thread.
+     */
+    private Set<String> getCacheKeysInUse() {
+        Set<String> keys = new HashSet<>();
+        for (PlayerInstance instance : players.values()) {
+            for (int i = 0; i < instance.player.getMediaItemCount(); i++) {
+                String key = getCacheKey(instance.player.getMediaItemAt(i));
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+        }
+        if (precacheManager != null) {
+            for (Map.Entry<String, String> entry : precacheManager.getActiveCacheKeys().entrySet()) {
+                keys.add(getCacheKey(entry.getKey(), entry.getValue()));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Whether a player, precache or active download uses the key right now. Called from the cache
+     * verifier's thread; if the playback thread does not answer in time, the key counts as in use.
+     */
+    private boolean isCacheKeyInUse(String key) {
+        AtomicBoolean inUse = new AtomicBoolean(true);
+        runOnPlaybackThreadAndWait(() -> {
+            OfflineDownloadManager downloads = offlineDownloads;
+            inUse.set(getCacheKeysInUse().contains(key) || (downloads != null && downloads.isActiveKey(key)));
+        }, KEY_IN_USE_TIMEOUT_MS);
+        return inUse.get();
     }
 
     @PluginMethod
-    public void hide(PluginCall call) {
-        String playerId = call.getString("playerId");
-        if (playerId == null) {
-            call.reject("playerId requerido");
+    public void cancelCacheVerification(PluginCall call) {
+        if (cacheVerifier == null) {
+            call.reject("Cache not available");
             return;
         }
         
-        PlayerInstance instance = players.get(playerId);
-        if (instance == null) {
-            call.reject("Player not found: " + playerId);
-            return;
-        }
+        JSObject result = new JSObject();
+        result.put("cancelled", cacheVerifier.isRunning());
+        cacheVerifier.cancel();
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void configurePlayerPool(PluginCall call) {
+        Integer maxIdleValue = call.getInt("maxIdlePerType", PlayerPool.DEFAULT_MAX_IDLE_PER_TYPE);
+        Long idleTimeoutValue = call.getLong("idleTimeoutMs", PlayerPool.DEFAULT_IDLE_TIMEOUT_MS);
+        Boolean warmUpValue = call.getBoolean("warmUp", false);
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
+        int maxIdle = maxIdleValue != null ? maxIdleValue : PlayerPool.DEFAULT_MAX_IDLE_PER_TYPE;
+        long idleTimeoutMs = idleTimeoutValue != null ? idleTimeoutValue : PlayerPool.DEFAULT_IDLE_TIMEOUT_MS;
+        boolean warmUp = warmUpValue != null && warmUpValue;
+        
+        if (maxIdle < 0) {
+            call.reject("maxIdlePerType must be >= 0");
             return;
         }
         
-        activity.runOnUiThread(() -> {
+        runOnPlaybackThread(() -> {
             try {
-                // Pause playback
-                if (instance.player != null) {
-                    instance.player.pause();
-                    android.util.Log.d("ExoPlayerSignage", "⏸️ Player paused in hide()");
-                }
-                
-                // For video players, hide the SurfaceView to prevent frozen frame from showing
-                // This is necessary when modal is shown - SurfaceView should be invisible
-                if ("video".equals(instance.type) && instance.surfaceView != null) {
-                    instance.surfaceView.setVisibility(android.view.View.INVISIBLE);
-                    android.util.Log.d("ExoPlayerSignage", "👁️ SurfaceView set to INVISIBLE in hide()");
+                if (playerPool == null) {
+                    call.reject("Player pool not available");
+                    return;
                 }
-                
-                // Also hide the shared SurfaceView if it exists (for cases where player was released but SurfaceView remains)
-                if (videoSurfaceView != null) {
-                    videoSurfaceView.setVisibility(android.view.View.INVISIBLE);
-                    android.util.Log.d("ExoPlayerSignage", "👁️ Shared SurfaceView set to INVISIBLE in hide()");
+                playerPool.configure(maxIdle, idleTimeoutMs);
+                if (warmUp) {
+                    for (String type : Arrays.asList("video", "audio")) {
+                        playerPool.warmUp(type);
+                    }
                 }
                 
-                // Audio players should NEVER have a SurfaceView
-                
-                call.resolve();
+                JSObject result = new JSObject();
+                result.put("idleVideoPlayers", playerPool.getIdleCount("video"));
+                result.put("idleAudioPlayers", playerPool.getIdleCount("audio"));
+                call.resolve(result);
             } catch (Exception e) {
-                call.reject("Error hiding SurfaceView: " + e.getMessage(), e);
+                call.reject("Error configuring player pool: " + e.getMessage(), e);
             }
         });
     }
 
     @PluginMethod
-    public void show(PluginCall call) {
-        String playerId = call.getString("playerId");
-        if (playerId == null) {
-            call.reject("playerId requerido");
+    public void configureBackgroundTransfers(PluginCall call) {
+        Long maxValue = call.getLong("maxBytesPerSecond", backgroundThrottle.getMaxBytesPerSecond());
+        long maxBytesPerSecond = maxValue != null ? maxValue : 0;
+        if (maxBytesPerSecond < 0) {
+            call.reject("maxBytesPerSecond must be >= 0");
             return;
         }
         
-        PlayerInstance instance = players.get(playerId);
-        if (instance == null) {
-            call.reject("Player not found: " + playerId);
-            return;
-        }
+        backgroundThrottle.setMaxBytesPerSecond(maxBytesPerSecond);
+        android.util.Log.d("ExoPlayerSignage", "🚦 Background transfers limited to " + maxBytesPerSecond + " B/s (0 = unlimited)");
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity == null) {
-            call.reject("Activity not available");
-            return;
-        }
+        JSObject result = new JSObject();
+        result.put("maxBytesPerSecond", backgroundThrottle.getMaxBytesPerSecond());
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void configureTrackSelection(PluginCall call) {
+        Boolean limitValue = call.getBoolean("limitToSurface", limitVideoToSurface);
+        Boolean decoderValue = call.getBoolean("respectDecoderCapabilities", respectDecoderCapabilities);
+        limitVideoToSurface = limitValue != null && limitValue;
+        respectDecoderCapabilities = decoderValue != null && decoderValue;
         
-        activity.runOnUiThread(() -> {
+        runOnPlaybackThread(() -> {
             try {
-                // CRITICAL: Audio players should NEVER have a SurfaceView
-                if ("audio".equals(instance.type)) {
-                    // Ensure no SurfaceView is associated for audio
-                    if (instance.surfaceView != null) {
-                        try {
-                            instance.player.clearVideoSurface();
-                        } catch (Exception e) {
-                            // Ignore
-                        }
+                for (PlayerInstance instance : players.values()) {
+                    if ("video".equals(instance.type)) {
+                        applyTrackSelectionConstraints(instance);
                     }
-                    call.resolve();
-                    return;
                 }
                 
-                // For video players, ensure SurfaceView is associated and resume playback if needed
-                if ("video".equals(instance.type) && instance.player != null) {
-                    // Ensure SurfaceView exists
-                    if (instance.surfaceView == null) {
-                        instance.surfaceView = getOrCreateVideoSurfaceView();
-                    }
-                    
-                    // Associate SurfaceView with player (wait for SurfaceHolder if needed)
-                    android.view.SurfaceHolder holder = instance.surfaceView.getHolder();
-                    if (holder.getSurface() != null && holder.getSurface().isValid()) {
-                        // SurfaceHolder is ready - associate immediately
-                        android.util.Log.d("ExoPlayerSignage", "✅ SurfaceHolder ready in show() - associating immediately");
-                        instance.player.setVideoSurfaceView(instance.surfaceView);
-                        pendingPlayer = null; // Clear any pending player
-                    } else {
-                        // SurfaceHolder not ready yet - store player for callback
-                        android.util.Log.d("ExoPlayerSignage", "⏳ SurfaceHolder not ready in show() - will associate when surfaceCreated() is called");
-                        pendingPlayer = instance.player;
-                    }
-                    
-                    // Check player state
-                    int playbackState = instance.player.getPlaybackState();
-                    boolean isPlaying = instance.player.isPlaying();
-                    
-                    // Make SurfaceView visible when showing
-                    instance.surfaceView.setVisibility(android.view.View.VISIBLE);
-                    android.util.Log.d("ExoPlayerSignage", "👁️ SurfaceView set to VISIBLE in show()");
-                    
-                    // If player is in STATE_IDLE (after stop()), prepare and play
-                    if (playbackState == Player.STATE_IDLE) {
-                        android.util.Log.d("ExoPlayerSignage", "🔄 Player in STATE_IDLE, preparing and playing");
-                        instance.player.prepare();
-                        instance.player.play();
-                    } else if (!isPlaying) {
-                        // Player is paused - resume playback
-                        android.util.Log.d("ExoPlayerSignage", "▶️ Player paused, resuming playback");
-                        instance.player.play();
-                    } else {
-                        android.util.Log.d("ExoPlayerSignage", "✅ Player already playing");
-                    }
-                    
-                    // Visibility is controlled by the app, but we ensure it's visible when show() is called
-                }
-                call.resolve();
+                JSObject result = new JSObject();
+                result.put("limitToSurface", limitVideoToSurface);
+                result.put("respectDecoderCapabilities", respectDecoderCapabilities);
+                result.put("surfaceWidth", surfaceWidth);
+                result.put("surfaceHeight", surfaceHeight);
+                call.resolve(result);
             } catch (Exception e) {
-                call.reject("Error showing SurfaceView: " + e.getMessage(), e);
+                call.reject("Error configuring track selection: " + e.getMessage(), e);
             }
         });
     }
 
     @PluginMethod
-    public void releasePlayer(PluginCall call) {
+    public void getPlaybackStats(PluginCall call) {
         String playerId = call.getString("playerId");
         if (playerId == null) {
             call.reject("playerId requerido");
@@ -1108,87 +3549,408 @@ public class ExoPlayerSignagePlugin extends Plugin {
             return;
         }
         
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity != null) {
-            activity.runOnUiThread(() -> {
-                if (instance.player != null) {
-                    // Clear pending player if this is the one waiting
-                    if (pendingPlayer == instance.player) {
-                        pendingPlayer = null;
+        runOnPlaybackThread(() -> {
+            try {
+                call.resolve(buildPlaybackStats(instance));
+            } catch (Exception e) {
+                call.reject("Error getting playback stats: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void setPlaybackStatsInterval(PluginCall call) {
+        Long intervalValue = call.getLong("intervalMs", 0L);
+        long intervalMs = intervalValue != null ? intervalValue : 0L;
+        if (intervalMs < 0) {
+            call.reject("intervalMs must be >= 0");
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            android.os.Handler handler = playbackHandler;
+            if (handler == null) {
+                call.reject("Playback thread not available");
+                return;
+            }
+            // Emitting more often than once a second would just flood the bridge
+            playbackStatsIntervalMs = intervalMs > 0 ? Math.max(1000, intervalMs) : 0;
+            handler.removeCallbacks(playbackStatsRunnable);
+            if (playbackStatsIntervalMs > 0) {
+                handler.postDelayed(playbackStatsRunnable, playbackStatsIntervalMs);
+            }
+            android.util.Log.d("ExoPlayerSignage", "📊 playbackStats interval: " + playbackStatsIntervalMs + "ms");
+            
+            JSObject result = new JSObject();
+            result.put("intervalMs", playbackStatsIntervalMs);
+            call.resolve(result);
+        });
+    }
+
+    /**
+     * Emit a playbackStats event for every player and schedule the next one.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void emitPlaybackStats() {
+        android.os.Handler handler = playbackHandler;
+        if (handler == null || playbackStatsIntervalMs <= 0) {
+            return;
+        }
+        for (PlayerInstance instance : players.values()) {
+            notifyListeners("playbackStats", buildPlaybackStats(instance));
+        }
+        handler.postDelayed(playbackStatsRunnable, playbackStatsIntervalMs);
+    }
+
+    /**
+     * Playback metrics of a player plus its current state.
+     * Note: This method should only be called from the playback thread.
+     */
+    private JSObject buildPlaybackStats(PlayerInstance instance) {
+        JSObject stats = instance.stats.toJSObject();
+        stats.put("playerId", instance.id);
+        stats.put("type", instance.type);
+        stats.put("state", getPlaybackStateString(instance.player.getPlaybackState()));
+        stats.put("isPlaying", instance.player.isPlaying());
+        stats.put("positionMs", instance.player.getCurrentPosition());
+        if (instance.loadControl != null) {
+            stats.put("bufferProfile", instance.loadControl.getProfile().name);
+            stats.put("bufferBytes", instance.loadControl.getBufferedBytes());
+        }
+        stats.put("totalBufferBytes", bufferBudget.getTotalBytesAllocated());
+        stats.put("bufferCapBytes", bufferBudget.getCapBytes());
+        return stats;
+    }
+
+    @PluginMethod
+    public void configureEvents(PluginCall call) {
+        Integer rateHz = call.getInt("rateHz");
+        Boolean positions = call.getBoolean("positions");
+        if (rateHz != null && rateHz < 0) {
+            call.reject("rateHz must be >= 0");
+            return;
+        }
+        
+        runOnPlaybackThread(() -> {
+            if (eventBatcher == null) {
+                call.reject("Playback thread not available");
+                return;
+            }
+            if (rateHz != null) {
+                eventBatcher.setRateHz(rateHz);
+            }
+            if (positions != null) {
+                positionEventsEnabled = positions;
+            }
+            // Start polling positions of players that are already playing
+            eventBatcher.wake();
+            android.util.Log.d("ExoPlayerSignage", "📨 playerEvents: " + eventBatcher.getRateHz() + "Hz, positions " + positionEventsEnabled);
+            
+            JSObject result = new JSObject();
+            result.put("rateHz", eventBatcher.getRateHz());
+            result.put("positions", positionEventsEnabled);
+            call.resolve(result);
+        });
+    }
+
+    /**
+     * Player listener feeding the playerEvents batches: state changes, buffering, play/pause and errors.
+     */
+    private Player.Listener createPlayerEventListener(String playerId, ExoPlayer player) {
+        return new Player.Listener() {
+            private boolean buffering;
+            
+            @Override
+            public void onPlaybackStateChanged(int playbackState) {
+                JSObject event = createPlayerEvent(playerId, "state");
+                event.put("state", getPlaybackStateString(playbackState));
+                eventBatcher.add(event);
+                
+                boolean nowBuffering = playbackState == Player.STATE_BUFFERING;
+                if (nowBuffering != buffering) {
+                    buffering = nowBuffering;
+                    JSObject bufferingEvent = createPlayerEvent(playerId, "buffering");
+                    bufferingEvent.put("buffering", nowBuffering);
+                    bufferingEvent.put("positionMs", player.getCurrentPosition());
+                    bufferingEvent.put("bufferedPositionMs", player.getBufferedPosition());
+                    eventBatcher.add(bufferingEvent);
+                }
+            }
+            
+            @Override
+            public void onIsPlayingChanged(boolean isPlaying) {
+                JSObject event = createPlayerEvent(playerId, "isPlaying");
+                event.put("isPlaying", isPlaying);
+                event.put("positionMs", player.getCurrentPosition());
+                eventBatcher.add(event);
+            }
+            
+            @Override
+            public void onPlayerError(com.google.android.exoplayer2.PlaybackException error) {
+                JSObject event = createPlayerEvent(playerId, "error");
+                event.put("code", error.getErrorCodeName());
+                event.put("message", error.getMessage());
+                eventBatcher.add(event);
+            }
+        };
+    }
+
+    private JSObject createPlayerEvent(String playerId, String type) {
+        JSObject event = new JSObject();
+        event.put("playerId", playerId);
+        event.put("type", type);
+        return event;
+    }
+
+    /**
+     * Polls the position of playing players for each batch and delivers batches as playerEvents.
+     */
+    private PlayerEventBatcher.Listener createEventBatcherListener() {
+        return new PlayerEventBatcher.Listener() {
+            @Override
+            public boolean onCollect(PlayerEventBatcher batcher) {
+                if (!positionEventsEnabled) {
+                    return false;
+                }
+                boolean playing = false;
+                for (PlayerInstance instance : players.values()) {
+                    if (instance.player == null || !instance.player.isPlaying()) {
+                        continue;
                     }
-                    if (instance.surfaceView != null && "video".equals(instance.type)) {
-                        instance.player.clearVideoSurface();
+                    playing = true;
+                    JSObject event = createPlayerEvent(instance.id, "position");
+                    event.put("positionMs", instance.player.getCurrentPosition());
+                    event.put("bufferedPositionMs", instance.player.getBufferedPosition());
+                    long durationMs = instance.player.getDuration();
+                    if (durationMs != C.TIME_UNSET) {
+                        event.put("durationMs", durationMs);
                     }
-                    instance.player.release();
+                    event.put("index", instance.player.getCurrentMediaItemIndex());
+                    batcher.update(instance.id + "/position", event);
                 }
-                // Don't remove SurfaceView - it's shared and reused
-                // Visibility is controlled by the app
-                players.remove(playerId);
-                call.resolve();
-            });
-        } else {
-            if (instance.player != null) {
-                // Clear pending player if this is the one waiting
-                if (pendingPlayer == instance.player) {
-                    pendingPlayer = null;
+                return playing;
+            }
+            
+            @Override
+            public void onBatch(JSArray events, int droppedEvents) {
+                if (!hasListeners("playerEvents")) {
+                    return;
                 }
-                if (instance.surfaceView != null && "video".equals(instance.type)) {
-                    instance.player.clearVideoSurface();
+                JSObject data = new JSObject();
+                data.put("events", events);
+                if (droppedEvents > 0) {
+                    data.put("droppedEvents", droppedEvents);
                 }
-                instance.player.release();
+                notifyListeners("playerEvents", data);
             }
-            players.remove(playerId);
-            call.resolve();
+        };
+    }
+
+    @PluginMethod
+    public void getDecoderBudget(PluginCall call) {
+        runOnPlaybackThread(() -> {
+            if (decoderBudget == null) {
+                call.reject("Playback thread not available");
+                return;
+            }
+            call.resolve(buildDecoderBudgetInfo());
+        });
+    }
+
+    @PluginMethod
+    public void configureDecoderBudget(PluginCall call) {
+        String policy = call.getString("policy");
+        Integer maxInstances = call.getInt("maxInstances");
+        if (policy != null && !DecoderBudget.isValidPolicy(policy)) {
+            call.reject("Invalid policy: " + policy + " (downgrade, queue or off)");
+            return;
+        }
+        if (maxInstances != null && maxInstances < 0) {
+            call.reject("maxInstances must be >= 0");
+            return;
         }
+        
+        runOnPlaybackThread(() -> {
+            if (decoderBudget == null) {
+                call.reject("Playback thread not available");
+                return;
+            }
+            if (policy != null) {
+                decoderBudget.setPolicy(policy);
+            }
+            if (maxInstances != null) {
+                decoderBudget.setMaxInstances(maxInstances);
+            }
+            android.util.Log.d("ExoPlayerSignage", "🎛️ Decoder budget: " + decoderBudget.getPolicy() + ", max instances " + decoderBudget.getMaxInstances());
+            // Players queued under the old settings may fit now (or no longer wait at all)
+            drainDecoderQueue();
+            call.resolve(buildDecoderBudgetInfo());
+        });
     }
 
-    @Override
-    protected void handleOnDestroy() {
-        android.app.Activity activity = getBridge().getActivity();
-        if (activity != null) {
-            activity.runOnUiThread(() -> {
-                // Release all players
+    /**
+     * Note: This method should only be called from the playback thread.
+     */
+    private JSObject buildDecoderBudgetInfo() {
+        JSObject result = new JSObject();
+        result.put("policy", decoderBudget.getPolicy());
+        result.put("maxInstances", decoderBudget.getMaxInstances());
+        result.put("codecs", decoderBudget.toJSArray());
+        JSArray queued = new JSArray();
+        for (PlayerInstance instance : decoderQueue) {
+            queued.put(instance.id);
+        }
+        result.put("queuedPlayers", queued);
+        return result;
+    }
+
+    /**
+     * Prepare the player, unless the "queue" policy makes it wait for a hardware decoder.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void prepareWithinDecoderBudget(PlayerInstance instance) {
+        decoderQueue.remove(instance);
+        if (instance.decoderTracker == null || decoderBudget == null || decoderBudget.tryAdmit(instance.decoderTracker)) {
+            instance.player.prepare();
+            return;
+        }
+        decoderQueue.add(instance);
+        android.util.Log.d("ExoPlayerSignage", "⏸️ No hardware decoder free - " + instance.id + " queued (" + decoderQueue.size() + " waiting)");
+        JSObject event = createPlayerEvent(instance.id, "decoder");
+        event.put("decoder", "queued");
+        eventBatcher.add(event);
+    }
+
+    /**
+     * Prepare queued players, oldest first, while hardware decoders are free.
+     * Note: This method should only be called from the playback thread.
+     */
+    private void drainDecoderQueue() {
+        while (!decoderQueue.isEmpty() && decoderBudget != null) {
+            PlayerInstance instance = decoderQueue.get(0);
+            if (!decoderBudget.tryAdmit(instance.decoderTracker)) {
+                return;
+            }
+            decoderQueue.remove(0);
+            android.util.Log.d("ExoPlayerSignage", "▶️ Hardware decoder free - preparing " + instance.id);
+            instance.player.prepare();
+            JSObject event = createPlayerEvent(instance.id, "decoder");
+            event.put("decoder", "admitted");
+            eventBatcher.add(event);
+        }
+    }
+
+    /**
+     * Reports which decoder each video player got, and prepares queued players when capacity frees up.
+     */
+    private DecoderBudget.Listener createDecoderBudgetListener() {
+        return new DecoderBudget.Listener() {
+            @Override
+            public void onDecoderInitialized(DecoderBudget.Tracker tracker, String decoderName, boolean hardware) {
                 for (PlayerInstance instance : players.values()) {
-                    if (instance.player != null) {
-                        // Clear pending player if this is the one waiting
-                        if (pendingPlayer == instance.player) {
-                            pendingPlayer = null;
-                        }
-                        if (instance.surfaceView != null && "video".equals(instance.type)) {
-                            instance.player.clearVideoSurface();
-                        }
-                        instance.player.release();
+                    if (instance.decoderTracker != tracker) {
+                        continue;
                     }
+                    android.util.Log.d("ExoPlayerSignage", "🎬 " + instance.id + " decoding with " + decoderName + (hardware ? " (hardware)" : " (software)"));
+                    JSObject event = createPlayerEvent(instance.id, "decoder");
+                    event.put("decoder", hardware ? "hardware" : "software");
+                    event.put("decoderName", decoderName);
+                    eventBatcher.add(event);
+                    return;
                 }
-                players.clear();
-                
-                // Clear pending player reference
-                pendingPlayer = null;
-                
-                // Don't remove SurfaceView - it's shared and will be cleaned up by Android
-                // Visibility is controlled by the app
-                
-                if (cache != null) {
-                    cache.release();
-                    cache = null;
+            }
+            
+            @Override
+            public void onCapacityFreed() {
+                // Not from within the player's own release callbacks
+                android.os.Handler handler = playbackHandler;
+                if (handler != null && !destroyed) {
+                    handler.post(() -> drainDecoderQueue());
                 }
-            });
-        } else {
+            }
+        };
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        destroyed = true;
+        List<PendingCommand> commands;
+        synchronized (pendingCacheCommands) {
+            commands = new ArrayList<>(pendingCacheCommands);
+            pendingCacheCommands.clear();
+        }
+        for (PendingCommand pending : commands) {
+            pending.call.reject("Plugin destroyed");
+        }
+        
+        if (playbackHandler == null) {
+            return;
+        }
+        
+        // Players live on the playback thread - release them (and then the cache) there
+        runOnPlaybackThread(() -> {
+            playbackHandler.removeCallbacks(playbackStatsRunnable);
+            eventBatcher.release();
+            
+            // Release all players
+            decoderQueue.clear();
             for (PlayerInstance instance : players.values()) {
+                stopSchedule(instance);
+                cancelPendingPreload(instance, "released");
                 if (instance.player != null) {
-                    if (instance.surfaceView != null && "video".equals(instance.type)) {
-                        instance.player.clearVideoSurface();
+                    releaseImageSlides(instance);
+                    releaseVideoZone(instance);
+                    if ("video".equals(instance.type)) {
+                        clearPlayerSurface(instance.player);
                     }
                     instance.player.release();
                 }
             }
             players.clear();
             
+            // Forget surface requests of the released players
+            surfaceArbiter.clear();
+            
+            if (playerPool != null) {
+                playerPool.clear();
+                playerPool = null;
+            }
+            
+            // Don't remove SurfaceView - it's shared and will be cleaned up by Android
+            // Visibility is controlled by the app
+            
+            if (precacheManager != null) {
+                precacheManager.shutdown();
+                precacheManager = null;
+            }
+            
+            if (cacheVerifier != null) {
+                cacheVerifier.shutdown();
+                cacheVerifier = null;
+            }
+            
+            if (imageSlideLoader != null) {
+                imageSlideLoader.release();
+                imageSlideLoader = null;
+            }
+            
+            if (offlineDownloads != null) {
+                offlineDownloads.release();
+                offlineDownloads = null;
+            }
+            
+            if (cacheEvictor != null) {
+                cacheEvictor.stop();
+            }
+            
             if (cache != null) {
                 cache.release();
                 cache = null;
             }
-        }
+            
+            playbackHandler = null;
+            playbackThread.quitSafely();
+        });
     }
     
     /**
@@ -1210,59 +3972,20 @@ public class ExoPlayerSignagePlugin extends Plugin {
     }
     
     /**
-     * Schedule periodic status checks for video player debugging
+     * Helper method to convert media item transition reason to readable string
      */
-    private void schedulePeriodicStatusCheck(PlayerInstance instance) {
-        android.os.Handler handler = new android.os.Handler(android.os.Looper.getMainLooper());
-        handler.postDelayed(new Runnable() {
-            private int checkCount = 0;
-            private final int maxChecks = 10; // Check 10 times (every 2 seconds = 20 seconds total)
-            
-            @Override
-            public void run() {
-                if (checkCount >= maxChecks) {
-                    android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Stopping periodic status checks (max reached)");
-                    return;
-                }
-                
-                checkCount++;
-                android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Periodic check #" + checkCount);
-                
-                if (instance.player != null && "video".equals(instance.type)) {
-                    android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Player state: " + getPlaybackStateString(instance.player.getPlaybackState()));
-                    android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Player isPlaying: " + instance.player.isPlaying());
-                    android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Player currentPosition: " + instance.player.getCurrentPosition() + "ms");
-                    android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Player duration: " + instance.player.getDuration() + "ms");
-                    
-                    if (instance.surfaceView != null) {
-                        android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: SurfaceView visibility: " + 
-                            (instance.surfaceView.getVisibility() == android.view.View.VISIBLE ? "VISIBLE" : 
-                             instance.surfaceView.getVisibility() == android.view.View.INVISIBLE ? "INVISIBLE" : "GONE"));
-                        android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: SurfaceView isShown: " + instance.surfaceView.isShown());
-                        android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: SurfaceView dimensions: " + 
-                            instance.surfaceView.getWidth() + "x" + instance.surfaceView.getHeight());
-                        android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: SurfaceView parent: " + 
-                            (instance.surfaceView.getParent() != null ? instance.surfaceView.getParent().getClass().getName() : "null"));
-                        
-                        // Check SurfaceHolder
-                        android.view.SurfaceHolder holder = instance.surfaceView.getHolder();
-                        if (holder != null && holder.getSurface() != null) {
-                            android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: SurfaceHolder isValid: " + holder.getSurface().isValid());
-                            android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: SurfaceHolder frame: " + 
-                                holder.getSurfaceFrame().width() + "x" + holder.getSurfaceFrame().height());
-                        } else {
-                            android.util.Log.w("ExoPlayerSignage", "⏱️ DEBUG: SurfaceHolder is null or has no surface!");
-                        }
-                    } else {
-                        android.util.Log.w("ExoPlayerSignage", "⏱️ DEBUG: SurfaceView is null!");
-                    }
-                    
-                    // Schedule next check (every 2 seconds)
-                    handler.postDelayed(this, 2000);
-                } else {
-                    android.util.Log.d("ExoPlayerSignage", "⏱️ DEBUG: Player instance is null or not video, stopping checks");
-                }
-            }
-        }, 2000); // First check after 2 seconds
+    private String getTransitionReasonString(int reason) {
+        switch (reason) {
+            case Player.MEDIA_ITEM_TRANSITION_REASON_AUTO:
+                return "auto";
+            case Player.MEDIA_ITEM_TRANSITION_REASON_REPEAT:
+                return "repeat";
+            case Player.MEDIA_ITEM_TRANSITION_REASON_SEEK:
+                return "seek";
+            case Player.MEDIA_ITEM_TRANSITION_REASON_PLAYLIST_CHANGED:
+                return "playlistChanged";
+            default:
+                return "unknown";
+        }
     }
 }
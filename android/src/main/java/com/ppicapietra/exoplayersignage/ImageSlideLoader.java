@@ -0,0 +1,180 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/ImageSlideLoader.java
+package com.ppicapietra.exoplayersignage;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceUtil;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.util.PriorityTaskManager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads slide images through the cache data source stack (so they are cached, pinned and
+ * authenticated like any other media) and decodes them on a background thread, downsampled to the
+ * size they are shown at. Decodes reuse bitmaps from the pool when one is large enough.
+ * The slide due now is read through the playback stack; prefetched slides go through the
+ * background stack on their own thread, pausing while a player is loading, so they never delay
+ * playback or the current slide.
+ * Note: Callbacks arrive on the UI thread.
+ */
+class ImageSlideLoader {
+
+    interface Callback {
+        void onLoaded(Bitmap bitmap);
+
+        void onError(String message);
+    }
+
+    // How often a paused prefetch checks whether playback stopped loading
+    private static final long PRIORITY_POLL_MS = 250;
+
+    private final DataSource.Factory dataSourceFactory;
+    private final DataSource.Factory prefetchDataSourceFactory;
+    private final PriorityTaskManager priorityTaskManager;
+    private final BitmapPool bitmapPool;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = createExecutor("ExoPlayerSignage-Images");
+    private final ExecutorService prefetchExecutor = createExecutor("ExoPlayerSignage-ImagePrefetch");
+
+    ImageSlideLoader(DataSource.Factory dataSourceFactory, DataSource.Factory prefetchDataSourceFactory,
+                     PriorityTaskManager priorityTaskManager, BitmapPool bitmapPool) {
+        this.dataSourceFactory = dataSourceFactory;
+        this.prefetchDataSourceFactory = prefetchDataSourceFactory;
+        this.priorityTaskManager = priorityTaskManager;
+        this.bitmapPool = bitmapPool;
+    }
+
+    BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Load and decode an image to fit targetWidth x targetHeight (pixels). A prefetch runs in the
+     * background and yields to playback.
+     */
+    void load(String url, String cacheKey, int targetWidth, int targetHeight, boolean prefetch, Callback callback) {
+        (prefetch ? prefetchExecutor : executor).execute(() -> {
+            try {
+                long startMs = android.os.SystemClock.elapsedRealtime();
+                byte[] data = prefetch ? readWithPriority(url, cacheKey) : read(dataSourceFactory, url, cacheKey);
+                Bitmap bitmap = decode(data, targetWidth, targetHeight);
+                android.util.Log.d("ExoPlayerSignage", "🖼️ Image decoded " + bitmap.getWidth() + "x" + bitmap.getHeight()
+                        + " in " + (android.os.SystemClock.elapsedRealtime() - startMs) + "ms: " + url);
+                mainHandler.post(() -> callback.onLoaded(bitmap));
+            } catch (IOException | RuntimeException e) {
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                android.util.Log.w("ExoPlayerSignage", "⚠️ Could not load image " + url + ": " + message);
+                mainHandler.post(() -> callback.onError(message));
+            }
+        });
+    }
+
+    void release() {
+        executor.shutdownNow();
+        prefetchExecutor.shutdownNow();
+        bitmapPool.clear();
+    }
+
+    private static ExecutorService createExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Read at download priority: whenever a player starts loading, the upstream throws
+     * PriorityTooLowException; wait until playback is done loading, then read again (what was
+     * already read comes from the cache).
+     */
+    private byte[] readWithPriority(String url, String cacheKey) throws IOException {
+        priorityTaskManager.add(C.PRIORITY_DOWNLOAD);
+        try {
+            while (true) {
+                while (!priorityTaskManager.proceedNonBlocking(C.PRIORITY_DOWNLOAD)) {
+                    try {
+                        Thread.sleep(PRIORITY_POLL_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                try {
+                    return read(prefetchDataSourceFactory, url, cacheKey);
+                } catch (PriorityTaskManager.PriorityTooLowException e) {
+                    android.util.Log.d("ExoPlayerSignage", "⏸️ Image prefetch yielding to playback: " + url);
+                }
+            }
+        } finally {
+            priorityTaskManager.remove(C.PRIORITY_DOWNLOAD);
+        }
+    }
+
+    private static byte[] read(DataSource.Factory dataSourceFactory, String url, String cacheKey) throws IOException {
+        DataSource dataSource = dataSourceFactory.createDataSource();
+        DataSpec dataSpec = new DataSpec.Builder()
+                .setUri(Uri.parse(url))
+                .setKey(cacheKey)
+                .build();
+        try {
+            dataSource.open(dataSpec);
+            return DataSourceUtil.readToEnd(dataSource);
+        } finally {
+            DataSourceUtil.closeQuietly(dataSource);
+        }
+    }
+
+    /**
+     * Decode at the largest power-of-two reduction that still covers the target size (scaled to fit),
+     * into a pooled bitmap if one is large enough.
+     */
+    private Bitmap decode(byte[] data, int targetWidth, int targetHeight) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unsupported image format");
+        }
+
+        double scale = Math.min((double) targetWidth / options.outWidth, (double) targetHeight / options.outHeight);
+        int sampleSize = 1;
+        while (1.0 / (sampleSize * 2) >= scale) {
+            sampleSize *= 2;
+        }
+        int width = (options.outWidth + sampleSize - 1) / sampleSize;
+        int height = (options.outHeight + sampleSize - 1) / sampleSize;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inBitmap = bitmapPool.get(width * height * 4);
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap could not be reused after all - decode into a new one
+            bitmapPool.put(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Could not decode image");
+        }
+        return bitmap;
+    }
+}
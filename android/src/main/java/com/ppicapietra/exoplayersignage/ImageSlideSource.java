@@ -0,0 +1,71 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/ImageSlideSource.java
+package com.ppicapietra.exoplayersignage;
+
+import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.source.ForwardingTimeline;
+import com.google.android.exoplayer2.source.SilenceMediaSource;
+import com.google.android.exoplayer2.source.WrappingMediaSource;
+
+/**
+ * Timeline entry of an image slide: silence lasting the slide's duration, so images sit in the
+ * player's playlist next to video and take part in its timing, looping and item transitions. The
+ * image itself is drawn by the player's ImageSlideView while the item is current. The timeline
+ * reports the slide's own MediaItem (id, URL) instead of the silence's.
+ */
+class ImageSlideSource extends WrappingMediaSource {
+
+    static final long DEFAULT_DURATION_MS = 10000;
+
+    /**
+     * Tag of an image slide's MediaItem.
+     */
+    static final class Slide {
+        final long durationMs;
+
+        Slide(long durationMs) {
+            this.durationMs = durationMs;
+        }
+    }
+
+    private final MediaItem mediaItem;
+
+    ImageSlideSource(MediaItem mediaItem) {
+        super(new SilenceMediaSource.Factory()
+                .setDurationUs(getSlide(mediaItem).durationMs * 1000)
+                .createMediaSource());
+        this.mediaItem = mediaItem;
+    }
+
+    static MediaItem.Builder setSlide(MediaItem.Builder builder, long durationMs) {
+        return builder.setTag(new Slide(durationMs));
+    }
+
+    static boolean isImage(MediaItem mediaItem) {
+        return getSlide(mediaItem) != null;
+    }
+
+    static Slide getSlide(MediaItem mediaItem) {
+        if (mediaItem == null || mediaItem.localConfiguration == null || !(mediaItem.localConfiguration.tag instanceof Slide)) {
+            return null;
+        }
+        return (Slide) mediaItem.localConfiguration.tag;
+    }
+
+    @Override
+    public MediaItem getMediaItem() {
+        return mediaItem;
+    }
+
+    @Override
+    protected void onChildSourceInfoRefreshed(Timeline newTimeline) {
+        refreshSourceInfo(new ForwardingTimeline(newTimeline) {
+            @Override
+            public Window getWindow(int windowIndex, Window window, long defaultPositionProjectionUs) {
+                super.getWindow(windowIndex, window, defaultPositionProjectionUs);
+                window.mediaItem = mediaItem;
+                return window;
+            }
+        });
+    }
+}
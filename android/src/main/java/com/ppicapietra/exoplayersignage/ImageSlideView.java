@@ -0,0 +1,237 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/ImageSlideView.java
+package com.ppicapietra.exoplayersignage;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Image slides of one video player, drawn in an ImageView right above the player's SurfaceView
+ * (and like it, below the WebView). The current slide is shown as soon as it is decoded, the next
+ * one is decoded ahead in the background so transitions are instant. A replaced bitmap goes back
+ * to the pool one slide later, once nothing can still be drawing it.
+ * Note: Must be used from the UI thread.
+ */
+class ImageSlideView {
+
+    interface Listener {
+        void onImageError(String url, String message);
+    }
+
+    private final Context context;
+    private final ImageSlideLoader loader;
+    private final Listener listener;
+
+    private ImageView view;
+    private View surfaceView;
+    private boolean visible = true;
+    private boolean released;
+
+    // Slide that should be on screen (null = none) and slide decoded ahead
+    private String currentUrl;
+    private String nextUrl;
+    private String displayedUrl;
+    private Bitmap displayed;
+    private Bitmap retired;
+    // Decoded, not displayed yet
+    private final Map<String, Bitmap> decoded = new HashMap<>();
+    // Loads in flight: URL -> whether it is a prefetch
+    private final Map<String, Boolean> loading = new HashMap<>();
+
+    ImageSlideView(Context context, ImageSlideLoader loader, Listener listener) {
+        this.context = context;
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    /**
+     * Place the slides over the player's SurfaceView (again after it moved or changed).
+     */
+    void attach(View surfaceView) {
+        this.surfaceView = surfaceView;
+        if (view == null || surfaceView == null || !(surfaceView.getParent() instanceof ViewGroup)) {
+            return;
+        }
+        ViewGroup container = (ViewGroup) surfaceView.getParent();
+        if (view.getParent() != container) {
+            if (view.getParent() instanceof ViewGroup) {
+                ((ViewGroup) view.getParent()).removeView(view);
+            }
+            container.addView(view, container.indexOfChild(surfaceView) + 1, surfaceView.getLayoutParams());
+        } else {
+            view.setLayoutParams(surfaceView.getLayoutParams());
+        }
+    }
+
+    /**
+     * Show a slide (as soon as it is decoded).
+     */
+    void show(String url, String cacheKey) {
+        currentUrl = url;
+        trimDecoded();
+        if (url.equals(displayedUrl)) {
+            updateVisibility();
+            return;
+        }
+        Bitmap bitmap = decoded.remove(url);
+        if (bitmap != null) {
+            display(url, bitmap);
+        } else {
+            load(url, cacheKey, false);
+        }
+    }
+
+    /**
+     * Decode the slide that comes next (null = the next item is not an image).
+     */
+    void prefetch(String url, String cacheKey) {
+        nextUrl = url;
+        trimDecoded();
+        if (url != null && !url.equals(displayedUrl) && !decoded.containsKey(url)) {
+            load(url, cacheKey, true);
+        }
+    }
+
+    /**
+     * The current item is not an image - uncover the video.
+     */
+    void hide() {
+        currentUrl = null;
+        if (displayed != null) {
+            view.setImageDrawable(null);
+            retire(displayed);
+            displayed = null;
+            displayedUrl = null;
+        }
+        updateVisibility();
+    }
+
+    void setVisible(boolean visible) {
+        this.visible = visible;
+        updateVisibility();
+    }
+
+    void release() {
+        released = true;
+        if (view != null && view.getParent() instanceof ViewGroup) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        view = null;
+        // Displayed bitmaps may still be in a frame being drawn - leave them to the GC
+        displayed = null;
+        retired = null;
+        for (Bitmap bitmap : decoded.values()) {
+            loader.getBitmapPool().put(bitmap);
+        }
+        decoded.clear();
+    }
+
+    /**
+     * Start a load unless one is in flight. The slide due now does not wait for its prefetch
+     * (which may be paused for playback) - it is loaded again in the foreground, mostly from cache.
+     */
+    private void load(String url, String cacheKey, boolean prefetch) {
+        Boolean inFlight = loading.get(url);
+        if (inFlight != null && (prefetch || !inFlight)) {
+            return;
+        }
+        loading.put(url, prefetch);
+        int[] size = getTargetSize();
+        loader.load(url, cacheKey, size[0], size[1], prefetch, new ImageSlideLoader.Callback() {
+            @Override
+            public void onLoaded(Bitmap bitmap) {
+                finishLoad(url, prefetch);
+                if (released) {
+                    loader.getBitmapPool().put(bitmap);
+                } else if (url.equals(currentUrl) && !url.equals(displayedUrl)) {
+                    display(url, bitmap);
+                } else if (url.equals(nextUrl) && !decoded.containsKey(url)) {
+                    decoded.put(url, bitmap);
+                } else {
+                    loader.getBitmapPool().put(bitmap);
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                finishLoad(url, prefetch);
+                if (!released) {
+                    listener.onImageError(url, message);
+                }
+            }
+        });
+    }
+
+    private void finishLoad(String url, boolean prefetch) {
+        Boolean inFlight = loading.get(url);
+        if (inFlight != null && inFlight == prefetch) {
+            loading.remove(url);
+        }
+    }
+
+    private void display(String url, Bitmap bitmap) {
+        if (view == null) {
+            view = new ImageView(context);
+            view.setScaleType(ImageView.ScaleType.FIT_CENTER);
+            view.setBackgroundColor(android.graphics.Color.BLACK);
+            attach(surfaceView);
+        }
+        view.setImageBitmap(bitmap);
+        if (displayed != null) {
+            retire(displayed);
+        }
+        displayed = bitmap;
+        displayedUrl = url;
+        updateVisibility();
+    }
+
+    /**
+     * Pool the bitmap replaced one slide earlier - this one may still be in the frame being drawn.
+     */
+    private void retire(Bitmap bitmap) {
+        if (retired != null) {
+            loader.getBitmapPool().put(retired);
+        }
+        retired = bitmap;
+    }
+
+    /**
+     * Pool decoded slides that are neither current nor next any more.
+     */
+    private void trimDecoded() {
+        List<String> urls = new ArrayList<>(decoded.keySet());
+        for (String url : urls) {
+            if (!url.equals(currentUrl) && !url.equals(nextUrl)) {
+                loader.getBitmapPool().put(decoded.remove(url));
+            }
+        }
+    }
+
+    private void updateVisibility() {
+        if (view != null) {
+            boolean shown = visible && displayed != null;
+            view.setVisibility(shown ? View.VISIBLE : View.INVISIBLE);
+        }
+    }
+
+    /**
+     * Size the slides are shown at: the SurfaceView's, or the display's before it is laid out.
+     */
+    private int[] getTargetSize() {
+        int width = surfaceView != null ? surfaceView.getWidth() : 0;
+        int height = surfaceView != null ? surfaceView.getHeight() : 0;
+        if (width <= 0 || height <= 0) {
+            android.util.DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+            width = metrics.widthPixels;
+            height = metrics.heightPixels;
+        }
+        return new int[] { width, height };
+    }
+}
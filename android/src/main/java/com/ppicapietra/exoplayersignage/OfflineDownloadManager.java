@@ -0,0 +1,291 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/OfflineDownloadManager.java
+package com.ppicapietra.exoplayersignage;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultRenderersFactory;
+import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.database.DatabaseProvider;
+import com.google.android.exoplayer2.offline.DefaultDownloadIndex;
+import com.google.android.exoplayer2.offline.DefaultDownloaderFactory;
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadCursor;
+import com.google.android.exoplayer2.offline.DownloadHelper;
+import com.google.android.exoplayer2.offline.DownloadManager;
+import com.google.android.exoplayer2.offline.DownloadRequest;
+import com.google.android.exoplayer2.offline.Downloader;
+import com.google.android.exoplayer2.trackselection.TrackSelectionParameters;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+import com.google.android.exoplayer2.util.PriorityTaskManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whole-stream offline downloads (HLS/DASH at one rendition, or progressive files) through
+ * ExoPlayer's DownloadManager, written into the shared cache. Keys written by a download are
+ * protected from the evictor until the download is removed. Downloads are persisted in the
+ * download index and resume on the next start. They run at download priority: paused whenever a
+ * player is loading (the downloaders themselves wait on the PriorityTaskManager).
+ * Note: Must be created and used on a thread with a Looper (the playback thread); listener
+ * callbacks arrive there.
+ */
+class OfflineDownloadManager {
+
+    static final int DEFAULT_MAX_PARALLEL_DOWNLOADS = 2;
+    // Progress events while something is downloading
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    interface Listener {
+        /**
+         * State change or progress of a download. error is set when it failed.
+         */
+        void onDownloadUpdate(Download download, String error);
+
+        void onDownloadRemoved(Download download);
+    }
+
+    interface PrepareCallback {
+        void onQueued(DownloadRequest request);
+
+        void onError(String error);
+    }
+
+    private final Context context;
+    private final Cache cache;
+    private final DataSource.Factory upstreamFactory;
+    private final CacheKeyFactory cacheKeyFactory;
+    private final AdaptiveCacheEvictor evictor;
+    private final PriorityTaskManager priorityTaskManager;
+    private final Listener listener;
+    private final Handler handler;
+    private final DownloadManager downloadManager;
+
+    // Completed downloads by cache key, for playback - a re-signed URL still finds its download
+    // (read from any thread)
+    private final Map<String, Download> completedByKey = new ConcurrentHashMap<>();
+    // Cache keys written (or removed) by each download in this session
+    private final Map<String, Set<String>> keysById = new ConcurrentHashMap<>();
+
+    private final Runnable progressRunnable = this::reportProgress;
+    private boolean progressScheduled;
+
+    OfflineDownloadManager(Context context, DatabaseProvider databaseProvider, Cache cache,
+                           DataSource.Factory upstreamFactory, CacheKeyFactory cacheKeyFactory,
+                           AdaptiveCacheEvictor evictor, PriorityTaskManager priorityTaskManager, Listener listener) {
+        this.context = context;
+        this.cache = cache;
+        this.upstreamFactory = upstreamFactory;
+        this.cacheKeyFactory = cacheKeyFactory;
+        this.evictor = evictor;
+        this.priorityTaskManager = priorityTaskManager;
+        this.listener = listener;
+        this.handler = new Handler(Looper.myLooper());
+
+        downloadManager = new DownloadManager(context, new DefaultDownloadIndex(databaseProvider), this::createDownloader);
+        downloadManager.setMaxParallelDownloads(DEFAULT_MAX_PARALLEL_DOWNLOADS);
+        downloadManager.addListener(new DownloadManager.Listener() {
+            @Override
+            public void onDownloadChanged(DownloadManager downloadManager, Download download, Exception finalException) {
+                String key = getCacheKey(download.request);
+                if (download.state == Download.STATE_COMPLETED) {
+                    completedByKey.put(key, download);
+                } else {
+                    completedByKey.remove(key);
+                }
+                if (download.state == Download.STATE_FAILED) {
+                    // Partial data may be evicted again
+                    releaseKeys(download.request.id);
+                }
+                String error = null;
+                if (finalException != null) {
+                    error = finalException.getMessage() != null ? finalException.getMessage() : finalException.getClass().getSimpleName();
+                }
+                listener.onDownloadUpdate(download, error);
+                scheduleProgress();
+            }
+
+            @Override
+            public void onDownloadRemoved(DownloadManager downloadManager, Download download) {
+                completedByKey.remove(getCacheKey(download.request));
+                releaseKeys(download.request.id);
+                listener.onDownloadRemoved(download);
+            }
+        });
+
+        for (Download download : getDownloads(Download.STATE_COMPLETED)) {
+            completedByKey.put(getCacheKey(download.request), download);
+        }
+        scheduleProgress();
+    }
+
+    /**
+     * Resolve the stream (manifest), select the tracks to keep and queue the download.
+     */
+    void download(String id, MediaItem mediaItem, TrackSelectionParameters parameters, PrepareCallback callback) {
+        DownloadHelper helper = DownloadHelper.forMediaItem(context, mediaItem, new DefaultRenderersFactory(context), upstreamFactory);
+        helper.prepare(new DownloadHelper.Callback() {
+            @Override
+            public void onPrepared(DownloadHelper helper) {
+                try {
+                    // Progressive media has no periods - the whole file is downloaded
+                    for (int period = 0; period < helper.getPeriodCount(); period++) {
+                        helper.clearTrackSelections(period);
+                        helper.addTrackSelection(period, parameters);
+                    }
+                    DownloadRequest request = helper.getDownloadRequest(id, null);
+                    downloadManager.addDownload(request);
+                    android.util.Log.d("ExoPlayerSignage", "📥 Download queued: " + id + " (" + request.streamKeys.size() + " streams)");
+                    callback.onQueued(request);
+                } catch (Exception e) {
+                    callback.onError(e.getMessage());
+                } finally {
+                    helper.release();
+                }
+            }
+
+            @Override
+            public void onPrepareError(DownloadHelper helper, IOException e) {
+                helper.release();
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+
+    void remove(String id) {
+        downloadManager.removeDownload(id);
+    }
+
+    /**
+     * Completed download of a cache key, or null.
+     */
+    Download getCompletedDownload(String cacheKey) {
+        return cacheKey != null ? completedByKey.get(cacheKey) : null;
+    }
+
+    /**
+     * Cache key of a download's media: its custom key, otherwise the one derived from the URL.
+     */
+    private String getCacheKey(DownloadRequest request) {
+        return cacheKeyFactory.buildCacheKey(new DataSpec.Builder()
+                .setUri(request.uri)
+                .setKey(request.customCacheKey)
+                .build());
+    }
+
+    /**
+     * Whether a download that is not finished (queued, running, paused) wrote this key in this session.
+     */
+    boolean isActiveKey(String key) {
+        for (Download download : downloadManager.getCurrentDownloads()) {
+            Set<String> keys = keysById.get(download.request.id);
+            if (keys != null && keys.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Downloads in the index with the given states (all if none).
+     */
+    List<Download> getDownloads(int... states) {
+        List<Download> downloads = new ArrayList<>();
+        try (DownloadCursor cursor = downloadManager.getDownloadIndex().getDownloads(states)) {
+            while (cursor.moveToNext()) {
+                downloads.add(cursor.getDownload());
+            }
+        } catch (IOException e) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Could not read download index: " + e.getMessage());
+        }
+        return downloads;
+    }
+
+    void release() {
+        handler.removeCallbacks(progressRunnable);
+        progressScheduled = false;
+        downloadManager.release();
+    }
+
+    /**
+     * Downloader writing through a cache key factory that records (and protects) the keys of this
+     * download. Also used to remove it, so its keys are known even after a restart.
+     */
+    private Downloader createDownloader(DownloadRequest request) {
+        String id = request.id;
+        CacheDataSource.Factory dataSourceFactory = new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(upstreamFactory)
+                .setUpstreamPriorityTaskManager(priorityTaskManager)
+                .setUpstreamPriority(C.PRIORITY_DOWNLOAD)
+                .setCacheKeyFactory(dataSpec -> {
+                    String key = cacheKeyFactory.buildCacheKey(dataSpec);
+                    recordKey(id, key);
+                    return key;
+                });
+        return new DefaultDownloaderFactory(dataSourceFactory, Runnable::run).createDownloader(request);
+    }
+
+    private void recordKey(String id, String key) {
+        Set<String> keys;
+        synchronized (keysById) {
+            keys = keysById.get(id);
+            if (keys == null) {
+                keys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                keysById.put(id, keys);
+            }
+        }
+        if (keys.add(key)) {
+            evictor.protectDownloadKey(key);
+        }
+    }
+
+    private void releaseKeys(String id) {
+        Set<String> keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            evictor.releaseDownloadKey(key);
+        }
+    }
+
+    private void reportProgress() {
+        progressScheduled = false;
+        boolean downloading = false;
+        for (Download download : downloadManager.getCurrentDownloads()) {
+            if (download.state == Download.STATE_DOWNLOADING) {
+                downloading = true;
+                listener.onDownloadUpdate(download, null);
+            }
+        }
+        if (downloading) {
+            scheduleProgress();
+        }
+    }
+
+    private void scheduleProgress() {
+        if (progressScheduled) {
+            return;
+        }
+        for (Download download : downloadManager.getCurrentDownloads()) {
+            if (download.state == Download.STATE_DOWNLOADING) {
+                progressScheduled = true;
+                handler.postDelayed(progressRunnable, PROGRESS_INTERVAL_MS);
+                return;
+            }
+        }
+    }
+}
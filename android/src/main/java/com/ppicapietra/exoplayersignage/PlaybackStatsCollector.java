@@ -0,0 +1,156 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/PlaybackStatsCollector.java
+package com.ppicapietra.exoplayersignage;
+
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderReuseEvaluation;
+import com.google.android.exoplayer2.source.LoadEventInfo;
+import com.google.android.exoplayer2.source.MediaLoadData;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+
+import java.io.IOException;
+
+/**
+ * Collects playback performance metrics for one player: time-to-first-frame, rebuffering, dropped
+ * frames, decoders, bitrate and bytes loaded from network vs cache.
+ * Analytics callbacks arrive on the playback thread, cache callbacks on loader threads.
+ */
+class PlaybackStatsCollector implements AnalyticsListener, CacheDataSource.EventListener {
+
+    // Time-to-first-frame of the current item
+    private long loadStartMs = -1;
+    private long timeToFirstFrameMs = -1;
+
+    // Rebuffering (buffering after playback had started)
+    private boolean hasBeenReady;
+    private long rebufferStartMs = -1;
+    private int rebufferCount;
+    private long rebufferDurationMs;
+
+    private long droppedFrames;
+    private String videoDecoderName;
+    private String audioDecoderName;
+    private int videoBitrate = Format.NO_VALUE;
+    private int videoWidth = Format.NO_VALUE;
+    private int videoHeight = Format.NO_VALUE;
+    private long bandwidthEstimate = -1;
+
+    private long bytesLoaded;
+    private long bytesFromCache;
+    private int loadErrors;
+
+    /**
+     * Mark the start of loading a new item (play, preload or playlist), for time-to-first-frame.
+     */
+    synchronized void markLoadStart() {
+        loadStartMs = SystemClock.elapsedRealtime();
+        timeToFirstFrameMs = -1;
+        hasBeenReady = false;
+        rebufferStartMs = -1;
+    }
+
+    @Override
+    public synchronized void onRenderedFirstFrame(EventTime eventTime, Object output, long renderTimeMs) {
+        if (timeToFirstFrameMs < 0 && loadStartMs >= 0) {
+            timeToFirstFrameMs = SystemClock.elapsedRealtime() - loadStartMs;
+        }
+    }
+
+    @Override
+    public synchronized void onPlaybackStateChanged(EventTime eventTime, int state) {
+        long now = SystemClock.elapsedRealtime();
+        if (state == Player.STATE_BUFFERING) {
+            if (hasBeenReady && rebufferStartMs < 0) {
+                rebufferCount++;
+                rebufferStartMs = now;
+            }
+            return;
+        }
+        if (rebufferStartMs >= 0) {
+            rebufferDurationMs += now - rebufferStartMs;
+            rebufferStartMs = -1;
+        }
+        if (state == Player.STATE_READY) {
+            hasBeenReady = true;
+        } else if (state == Player.STATE_IDLE || state == Player.STATE_ENDED) {
+            hasBeenReady = false;
+        }
+    }
+
+    @Override
+    public synchronized void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {
+        this.droppedFrames += droppedFrames;
+    }
+
+    @Override
+    public synchronized void onVideoDecoderInitialized(EventTime eventTime, String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+        videoDecoderName = decoderName;
+    }
+
+    @Override
+    public synchronized void onAudioDecoderInitialized(EventTime eventTime, String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+        audioDecoderName = decoderName;
+    }
+
+    @Override
+    public synchronized void onVideoInputFormatChanged(EventTime eventTime, Format format, DecoderReuseEvaluation decoderReuseEvaluation) {
+        videoBitrate = format.bitrate;
+        videoWidth = format.width;
+        videoHeight = format.height;
+    }
+
+    @Override
+    public synchronized void onBandwidthEstimate(EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate) {
+        bandwidthEstimate = bitrateEstimate;
+    }
+
+    @Override
+    public synchronized void onLoadCompleted(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+        bytesLoaded += loadEventInfo.bytesLoaded;
+    }
+
+    @Override
+    public synchronized void onLoadCanceled(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+        bytesLoaded += loadEventInfo.bytesLoaded;
+    }
+
+    @Override
+    public synchronized void onLoadError(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData, IOException error, boolean wasCanceled) {
+        bytesLoaded += loadEventInfo.bytesLoaded;
+        loadErrors++;
+    }
+
+    @Override
+    public synchronized void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+        bytesFromCache += cachedBytesRead;
+    }
+
+    @Override
+    public void onCacheIgnored(int reason) {
+        // Reads fall back to the network - counted as network bytes
+    }
+
+    synchronized JSObject toJSObject() {
+        long now = SystemClock.elapsedRealtime();
+        JSObject stats = new JSObject();
+        stats.put("timeToFirstFrameMs", timeToFirstFrameMs >= 0 ? timeToFirstFrameMs : null);
+        stats.put("rebufferCount", rebufferCount);
+        stats.put("rebufferDurationMs", rebufferDurationMs + (rebufferStartMs >= 0 ? now - rebufferStartMs : 0));
+        stats.put("droppedFrames", droppedFrames);
+        stats.put("videoDecoderName", videoDecoderName);
+        stats.put("audioDecoderName", audioDecoderName);
+        stats.put("videoBitrate", videoBitrate != Format.NO_VALUE ? videoBitrate : null);
+        stats.put("videoWidth", videoWidth != Format.NO_VALUE ? videoWidth : null);
+        stats.put("videoHeight", videoHeight != Format.NO_VALUE ? videoHeight : null);
+        stats.put("bandwidthEstimate", bandwidthEstimate >= 0 ? bandwidthEstimate : null);
+        stats.put("bytesLoaded", bytesLoaded);
+        stats.put("bytesFromCache", Math.min(bytesFromCache, bytesLoaded));
+        stats.put("bytesFromNetwork", Math.max(0, bytesLoaded - bytesFromCache));
+        stats.put("loadErrors", loadErrors);
+        return stats;
+    }
+}
@@ -0,0 +1,176 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/PlayerEventBatcher.java
+package com.ppicapietra.exoplayersignage;
+
+import android.os.Handler;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces player events into batches delivered at a fixed rate, so the bridge sees one call per
+ * interval instead of one per event. Discrete events (state, errors, ...) are kept in order;
+ * continuous ones (position) are coalesced per key, only the latest value is delivered.
+ * Note: All methods must be called from the thread of the handler passed to the constructor.
+ */
+class PlayerEventBatcher {
+
+    static final int DEFAULT_RATE_HZ = 4;
+    static final int MAX_RATE_HZ = 20;
+    // Oldest discrete events are dropped beyond this (e.g. while the WebView is stalled)
+    private static final int MAX_PENDING_EVENTS = 256;
+
+    interface Listener {
+        /**
+         * Called before each flush to add coalesced updates (e.g. positions). Returns true while
+         * there is something to poll, to keep the flush timer running without events.
+         */
+        boolean onCollect(PlayerEventBatcher batcher);
+
+        void onBatch(JSArray events, int droppedEvents);
+    }
+
+    private final Handler handler;
+    private final Listener listener;
+    private final Runnable flushRunnable = this::flush;
+
+    private final List<JSObject> pending = new ArrayList<>();
+    private final Map<String, JSObject> coalesced = new LinkedHashMap<>();
+    private int droppedEvents;
+
+    private long intervalMs = 1000 / DEFAULT_RATE_HZ;
+    private boolean flushScheduled;
+    private boolean released;
+
+    PlayerEventBatcher(Handler handler, Listener listener) {
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    /**
+     * Batches per second (0 = disabled, pending events are dropped).
+     */
+    void setRateHz(int rateHz) {
+        if (rateHz <= 0) {
+            intervalMs = 0;
+            clear();
+            return;
+        }
+        intervalMs = 1000 / Math.min(rateHz, MAX_RATE_HZ);
+        if (flushScheduled) {
+            handler.removeCallbacks(flushRunnable);
+            flushScheduled = false;
+            scheduleFlush();
+        }
+    }
+
+    int getRateHz() {
+        return intervalMs > 0 ? (int) (1000 / intervalMs) : 0;
+    }
+
+    boolean isEnabled() {
+        return intervalMs > 0 && !released;
+    }
+
+    /**
+     * Queue a discrete event, delivered with the next batch.
+     */
+    void add(JSObject event) {
+        if (!isEnabled()) {
+            return;
+        }
+        event.put("timeMs", System.currentTimeMillis());
+        if (pending.size() >= MAX_PENDING_EVENTS) {
+            pending.remove(0);
+            droppedEvents++;
+        }
+        pending.add(event);
+        scheduleFlush();
+    }
+
+    /**
+     * Queue a continuous event, replacing any not yet delivered with the same key.
+     */
+    void update(String key, JSObject event) {
+        if (!isEnabled()) {
+            return;
+        }
+        event.put("timeMs", System.currentTimeMillis());
+        coalesced.remove(key);
+        coalesced.put(key, event);
+        scheduleFlush();
+    }
+
+    /**
+     * Drop coalesced updates whose key starts with the prefix (e.g. a released player's).
+     */
+    void removeUpdates(String keyPrefix) {
+        List<String> keys = new ArrayList<>(coalesced.keySet());
+        for (String key : keys) {
+            if (key.startsWith(keyPrefix)) {
+                coalesced.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Make sure the timer runs, e.g. when a player starts playing and positions should be polled.
+     */
+    void wake() {
+        if (isEnabled()) {
+            scheduleFlush();
+        }
+    }
+
+    void release() {
+        released = true;
+        clear();
+    }
+
+    private void clear() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        pending.clear();
+        coalesced.clear();
+        droppedEvents = 0;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        handler.postDelayed(flushRunnable, intervalMs);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (!isEnabled()) {
+            return;
+        }
+        boolean polling = listener.onCollect(this);
+
+        if (!pending.isEmpty() || !coalesced.isEmpty()) {
+            JSArray events = new JSArray();
+            for (JSObject event : pending) {
+                events.put(event);
+            }
+            for (JSObject event : coalesced.values()) {
+                events.put(event);
+            }
+            int dropped = droppedEvents;
+            pending.clear();
+            coalesced.clear();
+            droppedEvents = 0;
+            listener.onBatch(events, dropped);
+        }
+        // onCollect may already have rescheduled through update()
+        if (polling) {
+            scheduleFlush();
+        }
+    }
+}
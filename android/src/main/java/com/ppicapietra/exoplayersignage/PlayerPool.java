@@ -0,0 +1,173 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/PlayerPool.java
+package com.ppicapietra.exoplayersignage;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.ExoPlayer;
+import com.google.android.exoplayer2.Player;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps reset ExoPlayer instances around so createPlayer can lease one instead of building a new
+ * player (renderers, codecs, threads) every time. Idle players are released after a timeout.
+ * Note: All methods must be called from the thread of the looper passed to the constructor.
+ */
+class PlayerPool {
+
+    static final int DEFAULT_MAX_IDLE_PER_TYPE = 1;
+    static final long DEFAULT_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+
+    interface PlayerFactory {
+        ExoPlayer create(String type);
+    }
+
+    // An idle player and the time it was returned to the pool
+    private static class PooledPlayer {
+        final ExoPlayer player;
+        final long idleSinceMs;
+
+        PooledPlayer(ExoPlayer player, long idleSinceMs) {
+            this.player = player;
+            this.idleSinceMs = idleSinceMs;
+        }
+    }
+
+    private final PlayerFactory factory;
+    private final Handler handler;
+    private final Map<String, ArrayDeque<PooledPlayer>> idlePlayers = new HashMap<>();
+    private final Runnable trimRunnable = this::trimIdle;
+
+    private int maxIdlePerType = DEFAULT_MAX_IDLE_PER_TYPE;
+    private long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+    private boolean trimScheduled;
+
+    PlayerPool(PlayerFactory factory, Looper looper) {
+        this.factory = factory;
+        this.handler = new Handler(looper);
+    }
+
+    void configure(int maxIdlePerType, long idleTimeoutMs) {
+        this.maxIdlePerType = Math.max(0, maxIdlePerType);
+        this.idleTimeoutMs = Math.max(0, idleTimeoutMs);
+        for (ArrayDeque<PooledPlayer> queue : idlePlayers.values()) {
+            while (queue.size() > this.maxIdlePerType) {
+                queue.pollLast().player.release();
+            }
+        }
+        scheduleTrim();
+    }
+
+    /**
+     * Build players until the pool holds maxIdlePerType idle players of the given type.
+     */
+    void warmUp(String type) {
+        ArrayDeque<PooledPlayer> queue = getQueue(type);
+        while (queue.size() < maxIdlePerType) {
+            queue.addLast(new PooledPlayer(factory.create(type), SystemClock.elapsedRealtime()));
+        }
+        scheduleTrim();
+    }
+
+    /**
+     * Lease a player of the given type, building a new one if none is idle.
+     */
+    ExoPlayer acquire(String type) {
+        PooledPlayer pooled = getQueue(type).pollFirst();
+        if (pooled != null) {
+            android.util.Log.d("ExoPlayerSignage", "♻️ Reusing pooled " + type + " player");
+            return pooled.player;
+        }
+        return factory.create(type);
+    }
+
+    /**
+     * Return a leased player. It is reset and kept if there is room, otherwise released.
+     * Callers must have removed their own listeners first.
+     */
+    void release(String type, ExoPlayer player) {
+        ArrayDeque<PooledPlayer> queue = getQueue(type);
+        if (queue.size() >= maxIdlePerType) {
+            player.release();
+            return;
+        }
+
+        try {
+            player.stop();
+            player.clearMediaItems();
+            player.clearVideoSurface();
+            player.setRepeatMode(Player.REPEAT_MODE_OFF);
+            player.setPlayWhenReady(false);
+        } catch (Exception e) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Could not reset player for pool: " + e.getMessage());
+            player.release();
+            return;
+        }
+
+        queue.addFirst(new PooledPlayer(player, SystemClock.elapsedRealtime()));
+        android.util.Log.d("ExoPlayerSignage", "♻️ Returned " + type + " player to pool (" + queue.size() + " idle)");
+        scheduleTrim();
+    }
+
+    int getIdleCount(String type) {
+        return getQueue(type).size();
+    }
+
+    /**
+     * Release every idle player.
+     */
+    void clear() {
+        handler.removeCallbacks(trimRunnable);
+        trimScheduled = false;
+        for (ArrayDeque<PooledPlayer> queue : idlePlayers.values()) {
+            for (PooledPlayer pooled : queue) {
+                pooled.player.release();
+            }
+            queue.clear();
+        }
+    }
+
+    private void trimIdle() {
+        trimScheduled = false;
+        long now = SystemClock.elapsedRealtime();
+        for (ArrayDeque<PooledPlayer> queue : idlePlayers.values()) {
+            Iterator<PooledPlayer> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                PooledPlayer pooled = iterator.next();
+                if (now - pooled.idleSinceMs >= idleTimeoutMs) {
+                    pooled.player.release();
+                    iterator.remove();
+                    android.util.Log.d("ExoPlayerSignage", "🧹 Released idle pooled player");
+                }
+            }
+        }
+        scheduleTrim();
+    }
+
+    private void scheduleTrim() {
+        if (trimScheduled) {
+            return;
+        }
+        for (ArrayDeque<PooledPlayer> queue : idlePlayers.values()) {
+            if (!queue.isEmpty()) {
+                trimScheduled = true;
+                handler.postDelayed(trimRunnable, Math.max(1000, idleTimeoutMs / 2));
+                return;
+            }
+        }
+    }
+
+    private ArrayDeque<PooledPlayer> getQueue(String type) {
+        ArrayDeque<PooledPlayer> queue = idlePlayers.get(type);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            idlePlayers.put(type, queue);
+        }
+        return queue;
+    }
+}
@@ -0,0 +1,229 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/PrecacheManager.java
+package com.ppicapietra.exoplayersignage;
+
+import android.net.Uri;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheWriter;
+import com.google.android.exoplayer2.util.PriorityTaskManager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads whole media files into the shared SimpleCache ahead of playback.
+ * Work runs on a small, low-priority worker pool so it never competes with the UI thread. If the
+ * data source factory has a PriorityTaskManager, downloads pause while a player is loading and
+ * resume where they stopped.
+ */
+class PrecacheManager {
+
+    // Number of files downloaded at the same time
+    static final int DEFAULT_CONCURRENCY = 2;
+
+    // Progress is reported every time it grows by at least this many bytes when the length is unknown
+    private static final long UNKNOWN_LENGTH_PROGRESS_STEP = 1024L * 1024L;
+
+    // How often a paused download checks whether playback stopped loading (or it was cancelled)
+    private static final long PRIORITY_POLL_MS = 250;
+
+    interface Callback {
+        void onProgress(String url, long bytesCached, long contentLength);
+
+        void onComplete(String url, boolean success, boolean cancelled, long bytesCached, String error);
+    }
+
+    // A single queued or running download
+    private static class Task {
+        final String url;
+        final String cacheKey;
+        volatile CacheWriter writer;
+        volatile boolean cancelled;
+
+        Task(String url, String cacheKey) {
+            this.url = url;
+            this.cacheKey = cacheKey;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    PrecacheManager(int concurrency) {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "ExoPlayerSignage-Precache-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a URL for download. Returns false if the URL is already queued or downloading.
+     * cacheKey is optional; without it the data source's CacheKeyFactory derives the key from the URL.
+     */
+    synchronized boolean enqueue(String url, String cacheKey, CacheDataSource.Factory dataSourceFactory, Callback callback) {
+        if (tasks.containsKey(url)) {
+            return false;
+        }
+
+        Task task = new Task(url, cacheKey);
+        tasks.put(url, task);
+        executor.submit(() -> runTask(task, dataSourceFactory, callback));
+        return true;
+    }
+
+    private void runTask(Task task, CacheDataSource.Factory dataSourceFactory, Callback callback) {
+        long[] lastReported = new long[] { -1 };
+        long[] bytesCachedSoFar = new long[] { 0 };
+        try {
+            if (task.cancelled) {
+                callback.onComplete(task.url, false, true, 0, null);
+                return;
+            }
+
+            CacheDataSource dataSource = dataSourceFactory.createDataSourceForDownloading();
+            DataSpec.Builder dataSpecBuilder = new DataSpec.Builder().setUri(Uri.parse(task.url));
+            if (task.cacheKey != null && !task.cacheKey.isEmpty()) {
+                dataSpecBuilder.setKey(task.cacheKey);
+            }
+            DataSpec dataSpec = dataSpecBuilder.build();
+
+            task.writer = new CacheWriter(dataSource, dataSpec, null, (requestLength, bytesCached, newBytesCached) -> {
+                bytesCachedSoFar[0] = bytesCached;
+                if (shouldReportProgress(lastReported[0], bytesCached, requestLength)) {
+                    lastReported[0] = bytesCached;
+                    callback.onProgress(task.url, bytesCached, requestLength);
+                }
+            });
+
+            // Cancel may have arrived while the writer was being created
+            if (task.cancelled) {
+                callback.onComplete(task.url, false, true, 0, null);
+                return;
+            }
+
+            android.util.Log.d("ExoPlayerSignage", "⬇️ Precache started: " + task.url);
+            PriorityTaskManager priorityTaskManager = dataSourceFactory.getUpstreamPriorityTaskManager();
+            if (priorityTaskManager == null) {
+                task.writer.cache();
+            } else {
+                cacheWithPriority(task, priorityTaskManager);
+            }
+            android.util.Log.d("ExoPlayerSignage", "✅ Precache completed: " + task.url + " (" + bytesCachedSoFar[0] + " bytes)");
+            callback.onComplete(task.url, true, false, bytesCachedSoFar[0], null);
+        } catch (InterruptedIOException e) {
+            android.util.Log.d("ExoPlayerSignage", "⏹️ Precache cancelled: " + task.url);
+            callback.onComplete(task.url, false, true, bytesCachedSoFar[0], null);
+        } catch (Exception e) {
+            android.util.Log.w("ExoPlayerSignage", "⚠️ Precache failed: " + task.url + " - " + e.getMessage());
+            callback.onComplete(task.url, false, task.cancelled, bytesCachedSoFar[0], e.getMessage());
+        } finally {
+            tasks.remove(task.url);
+        }
+    }
+
+    /**
+     * Run the writer at download priority: whenever a player starts loading, the upstream throws
+     * PriorityTooLowException; wait until playback is done loading, then resume.
+     */
+    private void cacheWithPriority(Task task, PriorityTaskManager priorityTaskManager) throws IOException {
+        priorityTaskManager.add(C.PRIORITY_DOWNLOAD);
+        try {
+            while (true) {
+                while (!priorityTaskManager.proceedNonBlocking(C.PRIORITY_DOWNLOAD)) {
+                    if (task.cancelled) {
+                        throw new InterruptedIOException();
+                    }
+                    try {
+                        Thread.sleep(PRIORITY_POLL_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                try {
+                    task.writer.cache();
+                    return;
+                } catch (PriorityTaskManager.PriorityTooLowException e) {
+                    android.util.Log.d("ExoPlayerSignage", "⏸️ Precache yielding to playback: " + task.url);
+                }
+            }
+        } finally {
+            priorityTaskManager.remove(C.PRIORITY_DOWNLOAD);
+        }
+    }
+
+    private static boolean shouldReportProgress(long lastReported, long bytesCached, long requestLength) {
+        if (lastReported < 0) {
+            return true;
+        }
+        if (requestLength == C.LENGTH_UNSET || requestLength <= 0) {
+            return bytesCached - lastReported >= UNKNOWN_LENGTH_PROGRESS_STEP;
+        }
+        // Report on every whole percent
+        return (bytesCached * 100 / requestLength) > (lastReported * 100 / requestLength) || bytesCached == requestLength;
+    }
+
+    /**
+     * Cancel a queued or running download. Returns false if the URL is not being precached.
+     */
+    synchronized boolean cancel(String url) {
+        Task task = tasks.get(url);
+        if (task == null) {
+            return false;
+        }
+
+        task.cancelled = true;
+        CacheWriter writer = task.writer;
+        if (writer != null) {
+            writer.cancel();
+        }
+        // Queued tasks see the flag when they start and report themselves as cancelled
+        return true;
+    }
+
+    /**
+     * Cancel every queued and running download. Returns the URLs that were cancelled.
+     */
+    synchronized List<String> cancelAll() {
+        List<String> cancelled = new ArrayList<>(tasks.keySet());
+        for (String url : cancelled) {
+            cancel(url);
+        }
+        return cancelled;
+    }
+
+    List<String> getActiveUrls() {
+        return new ArrayList<>(tasks.keySet());
+    }
+
+    /**
+     * Explicit cache keys of the queued and running downloads by URL (null if derived from the URL).
+     */
+    Map<String, String> getActiveCacheKeys() {
+        Map<String, String> cacheKeys = new HashMap<>();
+        for (Task task : tasks.values()) {
+            cacheKeys.put(task.url, task.cacheKey);
+        }
+        return cacheKeys;
+    }
+
+    void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+}
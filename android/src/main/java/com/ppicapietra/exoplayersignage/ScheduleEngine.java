@@ -0,0 +1,250 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/ScheduleEngine.java
+package com.ppicapietra.exoplayersignage;
+
+import android.os.Handler;
+
+import com.google.android.exoplayer2.MediaItem;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Day-parted schedule of one player, run natively on the playback thread: at every window boundary
+ * the highest-priority entry whose window contains the current wall-clock time is started, without
+ * a round trip through the WebView. Boundaries are timed to the millisecond; the clock is also
+ * re-checked every minute so clock corrections (NTP) are picked up.
+ * Note: All methods must be called from the thread of the handler passed to the constructor.
+ */
+class ScheduleEngine {
+
+    // Longest wait between two evaluations
+    private static final long MAX_CHECK_INTERVAL_MS = 60 * 1000;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    interface Listener {
+        /**
+         * The active entry changed (null = nothing scheduled now). scheduledAtMs is the wall-clock
+         * time of the boundary that caused the change.
+         */
+        void onActiveEntryChanged(Entry entry, long scheduledAtMs);
+    }
+
+    /**
+     * A playlist and the time window it plays in. The window is the intersection of an optional
+     * absolute range [startAtMs, endAtMs) and an optional daily range [startSecond, endSecond) on
+     * the given days (0 = Sunday). A daily range that ends before it starts runs past midnight.
+     */
+    static class Entry {
+        final String id;
+        final int priority;
+        final long startAtMs; // 0 = no lower bound
+        final long endAtMs; // 0 = no upper bound
+        final int startSecond; // -1 = no daily range
+        final int endSecond;
+        final boolean[] days; // null = every day
+        final List<MediaItem> items;
+        final boolean loop;
+
+        Entry(String id, int priority, long startAtMs, long endAtMs, int startSecond, int endSecond,
+              boolean[] days, List<MediaItem> items, boolean loop) {
+            this.id = id;
+            this.priority = priority;
+            this.startAtMs = startAtMs;
+            this.endAtMs = endAtMs;
+            this.startSecond = startSecond;
+            this.endSecond = endSecond;
+            this.days = days;
+            this.items = items;
+            this.loop = loop;
+        }
+    }
+
+    private final Handler handler;
+    private final TimeZone timeZone;
+    private final List<Entry> entries;
+    private final Listener listener;
+    private final Runnable tickRunnable = this::tick;
+
+    private Entry activeEntry;
+    private boolean started;
+    // Boundary the pending tick is aimed at (-1 = periodic re-check)
+    private long pendingBoundaryMs = -1;
+
+    ScheduleEngine(Handler handler, TimeZone timeZone, List<Entry> entries, Listener listener) {
+        this.handler = handler;
+        this.timeZone = timeZone;
+        this.entries = entries;
+        this.listener = listener;
+    }
+
+    void start() {
+        started = true;
+        long now = System.currentTimeMillis();
+        activeEntry = selectActive(now);
+        listener.onActiveEntryChanged(activeEntry, now);
+        scheduleNext(now);
+    }
+
+    void stop() {
+        started = false;
+        handler.removeCallbacks(tickRunnable);
+    }
+
+    Entry getActiveEntry() {
+        return activeEntry;
+    }
+
+    int getEntryCount() {
+        return entries.size();
+    }
+
+    private void tick() {
+        if (!started) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Handler delays run on uptime - if the wall clock is slightly behind, wait out the rest. A
+        // boundary further away than a re-check means the clock jumped back: re-evaluate now.
+        long remainingMs = pendingBoundaryMs - now;
+        if (pendingBoundaryMs > 0 && remainingMs > 0 && remainingMs <= MAX_CHECK_INTERVAL_MS) {
+            handler.postDelayed(tickRunnable, remainingMs);
+            return;
+        }
+        long scheduledAtMs = pendingBoundaryMs > 0 && remainingMs <= 0 ? pendingBoundaryMs : now;
+
+        Entry entry = selectActive(now);
+        if (entry != activeEntry) {
+            activeEntry = entry;
+            listener.onActiveEntryChanged(entry, scheduledAtMs);
+        }
+        scheduleNext(now);
+    }
+
+    private void scheduleNext(long now) {
+        long next = Long.MAX_VALUE;
+        for (Entry entry : entries) {
+            next = Math.min(next, nextBoundary(entry, now));
+        }
+        long delay = next - now;
+        if (next == Long.MAX_VALUE || delay > MAX_CHECK_INTERVAL_MS) {
+            pendingBoundaryMs = -1;
+            delay = MAX_CHECK_INTERVAL_MS;
+        } else {
+            pendingBoundaryMs = next;
+        }
+        handler.removeCallbacks(tickRunnable);
+        handler.postDelayed(tickRunnable, Math.max(0, delay));
+    }
+
+    /**
+     * Highest-priority entry active at the given time; the first one listed wins ties.
+     */
+    private Entry selectActive(long timeMs) {
+        Entry selected = null;
+        for (Entry entry : entries) {
+            if (isActive(entry, timeMs) && (selected == null || entry.priority > selected.priority)) {
+                selected = entry;
+            }
+        }
+        return selected;
+    }
+
+    private boolean isActive(Entry entry, long timeMs) {
+        if (entry.startAtMs > 0 && timeMs < entry.startAtMs) {
+            return false;
+        }
+        if (entry.endAtMs > 0 && timeMs >= entry.endAtMs) {
+            return false;
+        }
+        if (entry.startSecond < 0) {
+            return true;
+        }
+
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(timeMs);
+        int second = calendar.get(Calendar.HOUR_OF_DAY) * 3600 + calendar.get(Calendar.MINUTE) * 60 + calendar.get(Calendar.SECOND);
+        int day = calendar.get(Calendar.DAY_OF_WEEK) - Calendar.SUNDAY;
+        int previousDay = (day + 6) % 7;
+
+        if (entry.startSecond == entry.endSecond) {
+            // Whole day
+            return isScheduledDay(entry, day);
+        }
+        if (entry.startSecond < entry.endSecond) {
+            return isScheduledDay(entry, day) && second >= entry.startSecond && second < entry.endSecond;
+        }
+        // Past midnight: the window belongs to the day it starts on
+        return (second >= entry.startSecond && isScheduledDay(entry, day))
+                || (second < entry.endSecond && isScheduledDay(entry, previousDay));
+    }
+
+    private static boolean isScheduledDay(Entry entry, int day) {
+        return entry.days == null || entry.days[day];
+    }
+
+    /**
+     * Next time after timeMs at which the entry may start or stop being active.
+     */
+    private long nextBoundary(Entry entry, long timeMs) {
+        long next = Long.MAX_VALUE;
+        if (entry.startAtMs > timeMs) {
+            next = entry.startAtMs;
+        }
+        if (entry.endAtMs > timeMs) {
+            next = Math.min(next, entry.endAtMs);
+        }
+        if (entry.startSecond >= 0) {
+            // Start and end today and tomorrow (DST-safe via Calendar)
+            for (int dayOffset = 0; dayOffset <= 1; dayOffset++) {
+                for (int second : new int[] { entry.startSecond, entry.endSecond }) {
+                    long candidate = timeOfDay(timeMs, dayOffset, second);
+                    if (candidate > timeMs) {
+                        next = Math.min(next, candidate);
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    private long timeOfDay(long timeMs, int dayOffset, int second) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(timeMs);
+        calendar.add(Calendar.DAY_OF_MONTH, dayOffset);
+        calendar.set(Calendar.HOUR_OF_DAY, second / 3600);
+        calendar.set(Calendar.MINUTE, (second % 3600) / 60);
+        calendar.set(Calendar.SECOND, second % 60);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Parse "HH:mm" or "HH:mm:ss" into seconds of the day, or -1 if invalid.
+     */
+    static int parseTimeOfDay(String time) {
+        if (time == null) {
+            return -1;
+        }
+        String[] parts = time.trim().split(":");
+        if (parts.length < 2 || parts.length > 3) {
+            return -1;
+        }
+        try {
+            int hours = Integer.parseInt(parts[0]);
+            int minutes = Integer.parseInt(parts[1]);
+            int seconds = parts.length == 3 ? Integer.parseInt(parts[2]) : 0;
+            if (hours < 0 || hours > 24 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+                return -1;
+            }
+            int total = hours * 3600 + minutes * 60 + seconds;
+            if (total > SECONDS_PER_DAY) {
+                return -1;
+            }
+            // "24:00" = end of the day = midnight
+            return total % SECONDS_PER_DAY;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/SurfaceArbiter.java
+package com.ppicapietra.exoplayersignage;
+
+import android.view.Surface;
+
+import com.google.android.exoplayer2.ExoPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides which player renders into a Surface shared by several players. Attach requests are
+ * queued in order; the most recent one owns the Surface, and when it withdraws the Surface goes
+ * back to the previous requester. A handoff detaches the old owner and attaches the new one in the
+ * same step, so no other work (or SurfaceHolder callback) can run in between. Requests made while
+ * the Surface does not exist are kept and served when it is created.
+ * Note: All methods must be called from the playback thread (the players' looper).
+ */
+class SurfaceArbiter {
+
+    private final String name;
+    // Players that want the Surface, most recent last
+    private final List<ExoPlayer> requests = new ArrayList<>();
+
+    private Surface surface;
+    private ExoPlayer owner;
+
+    SurfaceArbiter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The player wants to render here. It takes over the Surface now, or as soon as it exists.
+     */
+    void request(ExoPlayer player) {
+        requests.remove(player);
+        requests.add(player);
+        assign();
+    }
+
+    /**
+     * The player no longer renders here (stopped using it, pooled or released). If it owned the
+     * Surface, the previous requester (if any) gets it back.
+     */
+    void withdraw(ExoPlayer player) {
+        if (!requests.remove(player)) {
+            return;
+        }
+        assign();
+    }
+
+    boolean isRequested(ExoPlayer player) {
+        return requests.contains(player);
+    }
+
+    ExoPlayer getOwner() {
+        return owner;
+    }
+
+    void onSurfaceCreated(Surface surface) {
+        this.surface = surface;
+        assign();
+    }
+
+    /**
+     * The owner stops rendering before this returns; requests stay queued for the next Surface.
+     */
+    void onSurfaceDestroyed(Surface surface) {
+        if (owner != null) {
+            owner.clearVideoSurface(surface);
+            owner = null;
+        }
+        this.surface = null;
+    }
+
+    void clear() {
+        requests.clear();
+        owner = null;
+        surface = null;
+    }
+
+    /**
+     * Give the Surface to the most recent request, swapping owners in one step.
+     */
+    private void assign() {
+        ExoPlayer next = requests.isEmpty() ? null : requests.get(requests.size() - 1);
+        if (next == owner) {
+            return;
+        }
+        ExoPlayer previous = owner;
+        if (surface == null || !surface.isValid()) {
+            owner = null;
+            if (previous != null) {
+                previous.clearVideoSurface();
+            }
+            return;
+        }
+        // A Surface takes one producer at a time: the old decoder must disconnect (clearVideoSurface
+        // blocks until it has) before the new one connects
+        if (previous != null) {
+            previous.clearVideoSurface(surface);
+        }
+        owner = next;
+        if (next != null) {
+            next.setVideoSurface(surface);
+        }
+        String action = previous == null ? "attach" : next == null ? "detach" : "handoff";
+        android.util.Log.d("ExoPlayerSignage", "🔀 " + name + " surface " + action + " (" + requests.size() + " requests)");
+    }
+}
@@ -0,0 +1,78 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/ThrottledDataSource.java
+package com.ppicapietra.exoplayersignage;
+
+import android.net.Uri;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource whose reads are paced by a shared BandwidthThrottle. Wraps the upstream of background
+ * transfers only - playback reads are never throttled.
+ */
+class ThrottledDataSource implements DataSource {
+
+    static class Factory implements DataSource.Factory {
+
+        private final DataSource.Factory upstreamFactory;
+        private final BandwidthThrottle throttle;
+
+        Factory(DataSource.Factory upstreamFactory, BandwidthThrottle throttle) {
+            this.upstreamFactory = upstreamFactory;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            return new ThrottledDataSource(upstreamFactory.createDataSource(), throttle);
+        }
+    }
+
+    private final DataSource upstream;
+    private final BandwidthThrottle throttle;
+
+    ThrottledDataSource(DataSource upstream, BandwidthThrottle throttle) {
+        this.upstream = upstream;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {
+        upstream.addTransferListener(transferListener);
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        return upstream.open(dataSpec);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int bytesRead = upstream.read(buffer, offset, length);
+        if (bytesRead != C.RESULT_END_OF_INPUT) {
+            throttle.consume(bytesRead);
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public Uri getUri() {
+        return upstream.getUri();
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return upstream.getResponseHeaders();
+    }
+
+    @Override
+    public void close() throws IOException {
+        upstream.close();
+    }
+}
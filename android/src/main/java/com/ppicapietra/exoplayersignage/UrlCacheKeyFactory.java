@@ -0,0 +1,76 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/UrlCacheKeyFactory.java
+package com.ppicapietra.exoplayersignage;
+
+import android.net.Uri;
+
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Builds cache keys that survive URL re-signing: an explicit key (MediaItem custom cache key or
+ * DataSpec key) wins, otherwise the URL is used with the configured query parameters removed
+ * (e.g. expiry and signature of signed CDN URLs).
+ */
+class UrlCacheKeyFactory implements CacheKeyFactory {
+
+    private volatile Set<String> ignoredQueryParams = Collections.emptySet();
+
+    void setIgnoredQueryParams(Collection<String> params) {
+        Set<String> normalized = new HashSet<>();
+        if (params != null) {
+            for (String param : params) {
+                if (param != null && !param.isEmpty()) {
+                    normalized.add(param.toLowerCase());
+                }
+            }
+        }
+        ignoredQueryParams = Collections.unmodifiableSet(normalized);
+    }
+
+    Set<String> getIgnoredQueryParams() {
+        return ignoredQueryParams;
+    }
+
+    @Override
+    public String buildCacheKey(DataSpec dataSpec) {
+        if (dataSpec.key != null) {
+            return dataSpec.key;
+        }
+        return buildCacheKey(dataSpec.uri);
+    }
+
+    /**
+     * Cache key for a URL that has no explicit key.
+     */
+    String buildCacheKey(Uri uri) {
+        Set<String> ignored = ignoredQueryParams;
+        String query = uri.getEncodedQuery();
+        if (ignored.isEmpty() || query == null || query.isEmpty()) {
+            return uri.toString();
+        }
+
+        // Keep the remaining parameters in their original order (and encoding)
+        StringBuilder kept = new StringBuilder();
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = Uri.decode(separator >= 0 ? pair.substring(0, separator) : pair);
+            if (ignored.contains(name.toLowerCase())) {
+                continue;
+            }
+            if (kept.length() > 0) {
+                kept.append('&');
+            }
+            kept.append(pair);
+        }
+
+        return uri.buildUpon().encodedQuery(kept.length() > 0 ? kept.toString() : null).build().toString();
+    }
+}
@@ -0,0 +1,175 @@
+// android/src/main/java/com/ppicapietra/exoplayersignage/VideoZone.java
+package com.ppicapietra.exoplayersignage;
+
+import android.content.Context;
+import android.view.Gravity;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.google.android.exoplayer2.ExoPlayer;
+
+/**
+ * Positioned SurfaceView of one video player, for layouts with several video regions. Like the
+ * shared full-screen SurfaceView it sits below the WebView; its bounds can change at any time
+ * without re-creating the player. The Surface is handed to the bound player whenever it (re)appears
+ * and taken back before it is destroyed.
+ * SurfaceViews only stack in two levels: zones with zIndex > 0 are media overlays, drawn above the
+ * others (still below the WebView).
+ * Note: Must be used from the UI thread, except getPlayer() and unbind().
+ */
+class VideoZone implements SurfaceHolder.Callback {
+
+    interface Host {
+        /**
+         * Give the Surface to the player (asynchronously, if it is still bound to the zone).
+         */
+        void attachSurface(VideoZone zone, ExoPlayer player, Surface surface);
+
+        /**
+         * Take the Surface away from the player. Must be done when this returns.
+         */
+        void detachSurface(ExoPlayer player, Surface surface);
+
+        void onSurfaceSizeChanged(VideoZone zone, int width, int height);
+    }
+
+    private final Context context;
+    private final Host host;
+
+    private SurfaceView view;
+    private ViewGroup container;
+    private int zIndex;
+    private boolean visible;
+
+    private volatile ExoPlayer player;
+    private volatile int surfaceWidth;
+    private volatile int surfaceHeight;
+
+    VideoZone(Context context, Host host) {
+        this.context = context;
+        this.host = host;
+    }
+
+    /**
+     * Position the zone in the container (pixels). The view is created on first use and re-created
+     * when the stacking level changes (only possible before it is attached).
+     */
+    void setBounds(ViewGroup container, int left, int top, int width, int height, int zIndex) {
+        boolean overlay = zIndex > 0;
+        if (view != null && (this.container != container || (this.zIndex > 0) != overlay)) {
+            removeView();
+        }
+        this.zIndex = zIndex;
+
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(width, height, Gravity.TOP | Gravity.START);
+        params.leftMargin = left;
+        params.topMargin = top;
+        if (view == null) {
+            view = new SurfaceView(context);
+            view.setZOrderMediaOverlay(overlay);
+            view.setBackgroundColor(android.graphics.Color.TRANSPARENT);
+            view.getHolder().addCallback(this);
+            view.setVisibility(visible ? android.view.View.VISIBLE : android.view.View.INVISIBLE);
+            // Bottom of the container, below the WebView
+            container.addView(view, 0, params);
+            this.container = container;
+        } else {
+            view.setLayoutParams(params);
+        }
+        android.util.Log.d("ExoPlayerSignage", "🔲 Video zone: " + width + "x" + height + " at " + left + "," + top + " (z " + zIndex + ")");
+    }
+
+    SurfaceView getView() {
+        return view;
+    }
+
+    /**
+     * Render the player in this zone and show it.
+     */
+    void bind(ExoPlayer player) {
+        this.player = player;
+        setVisible(true);
+        if (view != null) {
+            Surface surface = view.getHolder().getSurface();
+            if (surface != null && surface.isValid()) {
+                host.attachSurface(this, player, surface);
+            }
+        }
+    }
+
+    /**
+     * Stop handing the Surface to the player (it is about to be detached or reused).
+     */
+    void unbind() {
+        player = null;
+    }
+
+    ExoPlayer getPlayer() {
+        return player;
+    }
+
+    void setVisible(boolean visible) {
+        this.visible = visible;
+        if (view != null) {
+            view.setVisibility(visible ? android.view.View.VISIBLE : android.view.View.INVISIBLE);
+        }
+    }
+
+    int getSurfaceWidth() {
+        return surfaceWidth;
+    }
+
+    int getSurfaceHeight() {
+        return surfaceHeight;
+    }
+
+    /**
+     * Remove the view; the player must have been unbound first.
+     */
+    void release() {
+        player = null;
+        removeView();
+    }
+
+    private void removeView() {
+        if (view == null) {
+            return;
+        }
+        // Destroys the Surface (surfaceDestroyed detaches a bound player)
+        if (view.getParent() instanceof ViewGroup) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        view.getHolder().removeCallback(this);
+        view = null;
+        container = null;
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        ExoPlayer boundPlayer = player;
+        if (boundPlayer != null) {
+            host.attachSurface(this, boundPlayer, holder.getSurface());
+        }
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        if (width != surfaceWidth || height != surfaceHeight) {
+            surfaceWidth = width;
+            surfaceHeight = height;
+            host.onSurfaceSizeChanged(this, width, height);
+        }
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // The renderer must stop using the Surface before this callback returns
+        ExoPlayer boundPlayer = player;
+        if (boundPlayer != null) {
+            host.detachSurface(boundPlayer, holder.getSurface());
+        }
+    }
+}
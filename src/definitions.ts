@@ -1,12 +1,313 @@
 export interface ExoPlayerSignagePlugin {
-  createPlayer(options: { type: 'video' | 'audio'; volume?: number }): Promise<{ playerId: string }>;
-  play(options: { playerId: string; url: string; visible?: boolean; authToken?: string }): Promise<{ status: string }>;
+  createPlayer(options: {
+    type: 'video' | 'audio';
+    volume?: number;
+    bufferProfile?: 'auto' | 'local' | 'balanced' | 'stream';
+    bounds?: VideoBounds;
+  }): Promise<{ playerId: string }>;
+  play(options: {
+    playerId: string;
+    url: string;
+    visible?: boolean;
+    authToken?: string;
+    cacheKey?: string;
+    bounds?: VideoBounds;
+  }): Promise<{ status: string }>;
+  preload(options: {
+    playerId: string;
+    url: string;
+    authToken?: string;
+    cacheKey?: string;
+  }): Promise<{ status: 'ready' | 'played' | 'replaced'; loadTimeMs?: number }>;
+  playPlaylist(options: {
+    playerId: string;
+    items: PlaylistItem[];
+    loop?: boolean;
+    authToken?: string;
+  }): Promise<{ itemCount: number; skippedCount: number }>;
   stop(options: { playerId: string }): Promise<void>;
   pause(options: { playerId: string }): Promise<void>;
   setVolume(options: { playerId: string; volume: number }): Promise<void>;
   hide(options: { playerId: string }): Promise<void>;
   show(options: { playerId: string }): Promise<void>;
+  setBounds(options: { playerId: string; bounds: VideoBounds }): Promise<void>;
+  executeBatch(options: { commands: BatchCommand[] }): Promise<{ results: BatchCommandResult[]; failed: number }>;
+  setSchedule(options: {
+    playerId: string;
+    entries: ScheduleEntry[];
+    timeZone?: string;
+    authToken?: string;
+  }): Promise<{ entryCount: number; activeEntryId?: string }>;
+  clearSchedule(options: { playerId: string }): Promise<void>;
   releasePlayer(options: { playerId: string }): Promise<void>;
+  configurePlayerPool(options: {
+    maxIdlePerType?: number;
+    idleTimeoutMs?: number;
+    warmUp?: boolean;
+  }): Promise<{ idleVideoPlayers: number; idleAudioPlayers: number }>;
+  configureBackgroundTransfers(options: { maxBytesPerSecond?: number }): Promise<{ maxBytesPerSecond: number }>;
+  configureTrackSelection(options: {
+    limitToSurface?: boolean;
+    respectDecoderCapabilities?: boolean;
+  }): Promise<{
+    limitToSurface: boolean;
+    respectDecoderCapabilities: boolean;
+    surfaceWidth: number;
+    surfaceHeight: number;
+  }>;
+  precache(options: {
+    urls: (string | { url: string; cacheKey?: string })[];
+    authToken?: string;
+  }): Promise<{ queued: number }>;
+  setCacheKeyRules(options: { ignoredQueryParams: string[] }): Promise<{ ignoredQueryParams: string[] }>;
+  cancelPrecache(options?: { urls?: string[] }): Promise<{ cancelled: string[] }>;
+  getCacheStatus(): Promise<{ ready: boolean; openDurationMs?: number; error?: string }>;
+  getCacheStats(options?: { reset?: boolean }): Promise<{
+    usedBytes: number;
+    budgetBytes: number;
+    keyCount: number;
+    freeDiskBytes: number;
+    hitBytes: number;
+    missBytes: number;
+    hitRatio: number;
+    ignoredReads: number;
+    openDurationMs: number;
+  }>;
+  setCacheMode(options: {
+    mode: 'network' | 'offlineFirst' | 'cacheOnly';
+  }): Promise<{ mode: 'network' | 'offlineFirst' | 'cacheOnly' }>;
+  configureCacheBudget(options: {
+    minBytes?: number;
+    maxBytes?: number;
+    freeSpacePercent?: number;
+    reserveBytes?: number;
+    checkIntervalMs?: number;
+  }): Promise<{ budgetBytes: number; usedBytes: number; freeDiskBytes: number }>;
+  pin(options: { urls: (string | { url: string; cacheKey?: string })[] }): Promise<{ pinned: string[] }>;
+  unpin(options?: { urls?: (string | { url: string; cacheKey?: string })[] }): Promise<{ unpinned: string[] }>;
+  verifyCache(options?: {
+    repair?: 'none' | 'remove' | 'refetch';
+    includeIncomplete?: boolean;
+    checkOrigin?: boolean;
+    urls?: (string | { url: string; cacheKey?: string })[];
+    authToken?: string;
+  }): Promise<{ started: boolean }>;
+  cancelCacheVerification(): Promise<{ cancelled: boolean }>;
+  getCacheEntries(options?: { urls?: (string | { url: string; cacheKey?: string })[] }): Promise<{
+    entries: {
+      key: string;
+      url?: string;
+      cachedBytes: number;
+      contentLength: number;
+      fullyCached: boolean;
+      pinned?: boolean;
+      playCount?: number;
+    }[];
+  }>;
+  download(options: {
+    url: string;
+    id?: string;
+    cacheKey?: string;
+    authToken?: string;
+    maxVideoHeight?: number;
+    maxVideoBitrate?: number;
+  }): Promise<{ id: string; streamCount: number }>;
+  removeDownload(options: { id: string }): Promise<void>;
+  getDownloads(): Promise<{ downloads: DownloadInfo[] }>;
+  getPlaybackStats(options: { playerId: string }): Promise<PlaybackStats>;
+  setPlaybackStatsInterval(options: { intervalMs: number }): Promise<{ intervalMs: number }>;
+  configureEvents(options: { rateHz?: number; positions?: boolean }): Promise<{ rateHz: number; positions: boolean }>;
+  getDecoderBudget(): Promise<DecoderBudgetInfo>;
+  configureDecoderBudget(options: {
+    policy?: 'downgrade' | 'queue' | 'off';
+    maxInstances?: number;
+  }): Promise<DecoderBudgetInfo>;
   addListener(eventName: 'audioPlaybackEnded', listenerFunc: (data: { playerId: string }) => void): Promise<any>;
+  addListener(
+    eventName: 'playlistItemTransition',
+    listenerFunc: (data: {
+      playerId: string;
+      index: number;
+      mediaId: string;
+      url?: string;
+      reason: 'auto' | 'repeat' | 'seek' | 'playlistChanged' | 'unknown';
+    }) => void,
+  ): Promise<any>;
+  addListener(eventName: 'playlistEnded', listenerFunc: (data: { playerId: string }) => void): Promise<any>;
+  addListener(
+    eventName: 'precacheProgress',
+    listenerFunc: (data: { url: string; bytesCached: number; contentLength: number; progress?: number }) => void,
+  ): Promise<any>;
+  addListener(
+    eventName: 'precacheComplete',
+    listenerFunc: (data: {
+      url: string;
+      success: boolean;
+      cancelled: boolean;
+      bytesCached: number;
+      error?: string;
+    }) => void,
+  ): Promise<any>;
+  addListener(
+    eventName: 'uncachedMedia',
+    listenerFunc: (data: { playerId: string; url?: string; cacheKey: string; action: 'network' | 'skipped' }) => void,
+  ): Promise<any>;
+  addListener(
+    eventName: 'cacheReady',
+    listenerFunc: (data: { success: boolean; openDurationMs: number; error?: string }) => void,
+  ): Promise<any>;
+  addListener(
+    eventName: 'cacheVerified',
+    listenerFunc: (data: {
+      checkedKeys: number;
+      skippedKeys: number;
+      removedKeys: number;
+      refetchQueued: number;
+      durationMs: number;
+      cancelled: boolean;
+      issues: {
+        key: string;
+        url?: string;
+        issue: 'missingFile' | 'truncatedSpan' | 'hole' | 'lengthMismatch' | 'originMismatch' | 'incomplete';
+        repaired: boolean;
+      }[];
+    }) => void,
+  ): Promise<any>;
+  addListener(eventName: 'downloadProgress', listenerFunc: (data: DownloadInfo) => void): Promise<any>;
+  addListener(eventName: 'downloadRemoved', listenerFunc: (data: { id: string; url: string }) => void): Promise<any>;
+  addListener(
+    eventName: 'scheduleEntryChanged',
+    listenerFunc: (data: {
+      playerId: string;
+      entryId?: string;
+      itemCount?: number;
+      scheduledAtMs: number;
+      startedAtMs: number;
+      driftMs: number;
+    }) => void,
+  ): Promise<any>;
+  addListener(eventName: 'playbackStats', listenerFunc: (data: PlaybackStats) => void): Promise<any>;
+  addListener(
+    eventName: 'playerEvents',
+    listenerFunc: (data: { events: PlayerEvent[]; droppedEvents?: number }) => void,
+  ): Promise<any>;
   removeAllListeners(): Promise<void>;
 }
+
+export interface VideoBounds {
+  x?: number;
+  y?: number;
+  width: number;
+  height: number;
+  zIndex?: number;
+}
+
+export interface PlaylistItem {
+  url: string;
+  id?: string;
+  cacheKey?: string;
+  type?: 'media' | 'image';
+  durationMs?: number;
+}
+
+export interface PlaybackStats {
+  playerId: string;
+  type: 'video' | 'audio';
+  state: 'STATE_IDLE' | 'STATE_BUFFERING' | 'STATE_READY' | 'STATE_ENDED';
+  isPlaying: boolean;
+  positionMs: number;
+  timeToFirstFrameMs?: number;
+  rebufferCount: number;
+  rebufferDurationMs: number;
+  droppedFrames: number;
+  videoDecoderName?: string;
+  audioDecoderName?: string;
+  videoBitrate?: number;
+  videoWidth?: number;
+  videoHeight?: number;
+  bandwidthEstimate?: number;
+  bytesLoaded: number;
+  bytesFromCache: number;
+  bytesFromNetwork: number;
+  loadErrors: number;
+  bufferProfile?: 'local' | 'balanced' | 'stream';
+  bufferBytes?: number;
+  totalBufferBytes: number;
+  bufferCapBytes: number;
+}
+
+export interface PlayerEvent {
+  playerId: string;
+  type: 'state' | 'buffering' | 'isPlaying' | 'error' | 'position' | 'decoder';
+  timeMs: number;
+  state?: 'STATE_IDLE' | 'STATE_BUFFERING' | 'STATE_READY' | 'STATE_ENDED';
+  buffering?: boolean;
+  isPlaying?: boolean;
+  positionMs?: number;
+  bufferedPositionMs?: number;
+  durationMs?: number;
+  index?: number;
+  code?: string;
+  message?: string;
+  decoder?: 'hardware' | 'software' | 'queued' | 'admitted';
+  decoderName?: string;
+}
+
+export interface BatchCommand {
+  op: 'play' | 'pause' | 'stop' | 'setVolume' | 'hide' | 'show' | 'setBounds';
+  playerId: string;
+  url?: string;
+  cacheKey?: string;
+  authToken?: string;
+  volume?: number;
+  bounds?: VideoBounds;
+}
+
+export interface BatchCommandResult {
+  op: string;
+  playerId: string;
+  ok: boolean;
+  error?: string;
+  code?: string;
+}
+
+export interface DownloadInfo {
+  id: string;
+  url: string;
+  state: 'queued' | 'stopped' | 'downloading' | 'completed' | 'failed' | 'removing' | 'restarting';
+  streamCount: number;
+  bytesDownloaded: number;
+  contentLength?: number;
+  percentDownloaded?: number;
+  error?: string;
+}
+
+export interface ScheduleEntry {
+  id?: string;
+  priority?: number;
+  startAt?: number;
+  endAt?: number;
+  startTime?: string;
+  endTime?: string;
+  days?: number[];
+  items: PlaylistItem[];
+  loop?: boolean;
+}
+
+export interface DecoderCapacity {
+  mimeType: string;
+  decoderCount: number;
+  maxInstances: number;
+  maxWidth: number;
+  maxHeight: number;
+  maxPixelRate: number;
+  usedInstances: number;
+  usedPixelRate: number;
+}
+
+export interface DecoderBudgetInfo {
+  policy: 'downgrade' | 'queue' | 'off';
+  maxInstances: number;
+  codecs: DecoderCapacity[];
+  queuedPlayers: string[];
+}
@@ -1,18 +1,60 @@
 import { WebPlugin } from '@capacitor/core';
 
-import type { ExoPlayerSignagePlugin } from './definitions';
+import type {
+  BatchCommand,
+  BatchCommandResult,
+  DecoderBudgetInfo,
+  DownloadInfo,
+  ExoPlayerSignagePlugin,
+  PlaybackStats,
+  PlaylistItem,
+  ScheduleEntry,
+  VideoBounds,
+} from './definitions';
 
 export class ExoPlayerSignageWeb extends WebPlugin implements ExoPlayerSignagePlugin {
-  async createPlayer(_options: { type: 'video' | 'audio'; volume?: number }): Promise<{ playerId: string }> {
+  async createPlayer(_options: {
+    type: 'video' | 'audio';
+    volume?: number;
+    bufferProfile?: 'auto' | 'local' | 'balanced' | 'stream';
+    bounds?: VideoBounds;
+  }): Promise<{ playerId: string }> {
     console.warn('ExoPlayerSignage: createPlayer() no está disponible en web. Solo funciona en Android.');
     throw this.unimplemented('createPlayer() no está implementado en web. Usa Android.');
   }
 
-  async play(_options: { playerId: string; url: string; visible?: boolean }): Promise<{ status: string }> {
+  async play(_options: {
+    playerId: string;
+    url: string;
+    visible?: boolean;
+    authToken?: string;
+    cacheKey?: string;
+    bounds?: VideoBounds;
+  }): Promise<{ status: string }> {
     console.warn('ExoPlayerSignage: play() no está disponible en web. Solo funciona en Android.');
     throw this.unimplemented('play() no está implementado en web. Usa Android.');
   }
 
+  async preload(_options: {
+    playerId: string;
+    url: string;
+    authToken?: string;
+    cacheKey?: string;
+  }): Promise<{ status: 'ready' | 'played' | 'replaced'; loadTimeMs?: number }> {
+    console.warn('ExoPlayerSignage: preload() no está disponible en web.');
+    throw this.unimplemented('preload() no está implementado en web.');
+  }
+
+  async playPlaylist(_options: {
+    playerId: string;
+    items: PlaylistItem[];
+    loop?: boolean;
+    authToken?: string;
+  }): Promise<{ itemCount: number; skippedCount: number }> {
+    console.warn('ExoPlayerSignage: playPlaylist() no está disponible en web.');
+    throw this.unimplemented('playPlaylist() no está implementado en web.');
+  }
+
   async stop(_options: { playerId: string }): Promise<void> {
     console.warn('ExoPlayerSignage: stop() no está disponible en web.');
     throw this.unimplemented('stop() no está implementado en web.');
@@ -38,12 +80,216 @@ export class ExoPlayerSignageWeb extends WebPlugin implements ExoPlayerSignagePl
     throw this.unimplemented('show() no está implementado en web.');
   }
 
+  async setBounds(_options: { playerId: string; bounds: VideoBounds }): Promise<void> {
+    console.warn('ExoPlayerSignage: setBounds() no está disponible en web.');
+    throw this.unimplemented('setBounds() no está implementado en web.');
+  }
+
+  async executeBatch(_options: {
+    commands: BatchCommand[];
+  }): Promise<{ results: BatchCommandResult[]; failed: number }> {
+    console.warn('ExoPlayerSignage: executeBatch() no está disponible en web.');
+    throw this.unimplemented('executeBatch() no está implementado en web.');
+  }
+
+  async setSchedule(_options: {
+    playerId: string;
+    entries: ScheduleEntry[];
+    timeZone?: string;
+    authToken?: string;
+  }): Promise<{ entryCount: number; activeEntryId?: string }> {
+    console.warn('ExoPlayerSignage: setSchedule() no está disponible en web.');
+    throw this.unimplemented('setSchedule() no está implementado en web.');
+  }
+
+  async clearSchedule(_options: { playerId: string }): Promise<void> {
+    console.warn('ExoPlayerSignage: clearSchedule() no está disponible en web.');
+    throw this.unimplemented('clearSchedule() no está implementado en web.');
+  }
+
   async releasePlayer(_options: { playerId: string }): Promise<void> {
     console.warn('ExoPlayerSignage: releasePlayer() no está disponible en web.');
     throw this.unimplemented('releasePlayer() no está implementado en web.');
   }
 
-  async addListener(_eventName: 'audioPlaybackEnded', _listenerFunc: (data: { playerId: string }) => void): Promise<any> {
+  async configurePlayerPool(_options: {
+    maxIdlePerType?: number;
+    idleTimeoutMs?: number;
+    warmUp?: boolean;
+  }): Promise<{ idleVideoPlayers: number; idleAudioPlayers: number }> {
+    console.warn('ExoPlayerSignage: configurePlayerPool() no está disponible en web.');
+    throw this.unimplemented('configurePlayerPool() no está implementado en web.');
+  }
+
+  async configureBackgroundTransfers(_options: { maxBytesPerSecond?: number }): Promise<{ maxBytesPerSecond: number }> {
+    console.warn('ExoPlayerSignage: configureBackgroundTransfers() no está disponible en web.');
+    throw this.unimplemented('configureBackgroundTransfers() no está implementado en web.');
+  }
+
+  async configureTrackSelection(_options: {
+    limitToSurface?: boolean;
+    respectDecoderCapabilities?: boolean;
+  }): Promise<{
+    limitToSurface: boolean;
+    respectDecoderCapabilities: boolean;
+    surfaceWidth: number;
+    surfaceHeight: number;
+  }> {
+    console.warn('ExoPlayerSignage: configureTrackSelection() no está disponible en web.');
+    throw this.unimplemented('configureTrackSelection() no está implementado en web.');
+  }
+
+  async precache(_options: {
+    urls: (string | { url: string; cacheKey?: string })[];
+    authToken?: string;
+  }): Promise<{ queued: number }> {
+    console.warn('ExoPlayerSignage: precache() no está disponible en web.');
+    throw this.unimplemented('precache() no está implementado en web.');
+  }
+
+  async setCacheKeyRules(_options: { ignoredQueryParams: string[] }): Promise<{ ignoredQueryParams: string[] }> {
+    console.warn('ExoPlayerSignage: setCacheKeyRules() no está disponible en web.');
+    throw this.unimplemented('setCacheKeyRules() no está implementado en web.');
+  }
+
+  async cancelPrecache(_options?: { urls?: string[] }): Promise<{ cancelled: string[] }> {
+    console.warn('ExoPlayerSignage: cancelPrecache() no está disponible en web.');
+    throw this.unimplemented('cancelPrecache() no está implementado en web.');
+  }
+
+  async getCacheStatus(): Promise<{ ready: boolean; openDurationMs?: number; error?: string }> {
+    console.warn('ExoPlayerSignage: getCacheStatus() no está disponible en web.');
+    throw this.unimplemented('getCacheStatus() no está implementado en web.');
+  }
+
+  async getCacheStats(_options?: { reset?: boolean }): Promise<{
+    usedBytes: number;
+    budgetBytes: number;
+    keyCount: number;
+    freeDiskBytes: number;
+    hitBytes: number;
+    missBytes: number;
+    hitRatio: number;
+    ignoredReads: number;
+    openDurationMs: number;
+  }> {
+    console.warn('ExoPlayerSignage: getCacheStats() no está disponible en web.');
+    throw this.unimplemented('getCacheStats() no está implementado en web.');
+  }
+
+  async setCacheMode(_options: {
+    mode: 'network' | 'offlineFirst' | 'cacheOnly';
+  }): Promise<{ mode: 'network' | 'offlineFirst' | 'cacheOnly' }> {
+    console.warn('ExoPlayerSignage: setCacheMode() no está disponible en web.');
+    throw this.unimplemented('setCacheMode() no está implementado en web.');
+  }
+
+  async configureCacheBudget(_options: {
+    minBytes?: number;
+    maxBytes?: number;
+    freeSpacePercent?: number;
+    reserveBytes?: number;
+    checkIntervalMs?: number;
+  }): Promise<{ budgetBytes: number; usedBytes: number; freeDiskBytes: number }> {
+    console.warn('ExoPlayerSignage: configureCacheBudget() no está disponible en web.');
+    throw this.unimplemented('configureCacheBudget() no está implementado en web.');
+  }
+
+  async pin(_options: { urls: (string | { url: string; cacheKey?: string })[] }): Promise<{ pinned: string[] }> {
+    console.warn('ExoPlayerSignage: pin() no está disponible en web.');
+    throw this.unimplemented('pin() no está implementado en web.');
+  }
+
+  async unpin(_options?: { urls?: (string | { url: string; cacheKey?: string })[] }): Promise<{ unpinned: string[] }> {
+    console.warn('ExoPlayerSignage: unpin() no está disponible en web.');
+    throw this.unimplemented('unpin() no está implementado en web.');
+  }
+
+  async verifyCache(_options?: {
+    repair?: 'none' | 'remove' | 'refetch';
+    includeIncomplete?: boolean;
+    checkOrigin?: boolean;
+    urls?: (string | { url: string; cacheKey?: string })[];
+    authToken?: string;
+  }): Promise<{ started: boolean }> {
+    console.warn('ExoPlayerSignage: verifyCache() no está disponible en web.');
+    throw this.unimplemented('verifyCache() no está implementado en web.');
+  }
+
+  async cancelCacheVerification(): Promise<{ cancelled: boolean }> {
+    console.warn('ExoPlayerSignage: cancelCacheVerification() no está disponible en web.');
+    throw this.unimplemented('cancelCacheVerification() no está implementado en web.');
+  }
+
+  async getCacheEntries(_options?: { urls?: (string | { url: string; cacheKey?: string })[] }): Promise<{
+    entries: {
+      key: string;
+      url?: string;
+      cachedBytes: number;
+      contentLength: number;
+      fullyCached: boolean;
+      pinned?: boolean;
+      playCount?: number;
+    }[];
+  }> {
+    console.warn('ExoPlayerSignage: getCacheEntries() no está disponible en web.');
+    throw this.unimplemented('getCacheEntries() no está implementado en web.');
+  }
+
+  async download(_options: {
+    url: string;
+    id?: string;
+    cacheKey?: string;
+    authToken?: string;
+    maxVideoHeight?: number;
+    maxVideoBitrate?: number;
+  }): Promise<{ id: string; streamCount: number }> {
+    console.warn('ExoPlayerSignage: download() no está disponible en web.');
+    throw this.unimplemented('download() no está implementado en web.');
+  }
+
+  async removeDownload(_options: { id: string }): Promise<void> {
+    console.warn('ExoPlayerSignage: removeDownload() no está disponible en web.');
+    throw this.unimplemented('removeDownload() no está implementado en web.');
+  }
+
+  async getDownloads(): Promise<{ downloads: DownloadInfo[] }> {
+    console.warn('ExoPlayerSignage: getDownloads() no está disponible en web.');
+    throw this.unimplemented('getDownloads() no está implementado en web.');
+  }
+
+  async getPlaybackStats(_options: { playerId: string }): Promise<PlaybackStats> {
+    console.warn('ExoPlayerSignage: getPlaybackStats() no está disponible en web.');
+    throw this.unimplemented('getPlaybackStats() no está implementado en web.');
+  }
+
+  async setPlaybackStatsInterval(_options: { intervalMs: number }): Promise<{ intervalMs: number }> {
+    console.warn('ExoPlayerSignage: setPlaybackStatsInterval() no está disponible en web.');
+    throw this.unimplemented('setPlaybackStatsInterval() no está implementado en web.');
+  }
+
+  async configureEvents(_options: {
+    rateHz?: number;
+    positions?: boolean;
+  }): Promise<{ rateHz: number; positions: boolean }> {
+    console.warn('ExoPlayerSignage: configureEvents() no está disponible en web.');
+    throw this.unimplemented('configureEvents() no está implementado en web.');
+  }
+
+  async getDecoderBudget(): Promise<DecoderBudgetInfo> {
+    console.warn('ExoPlayerSignage: getDecoderBudget() no está disponible en web.');
+    throw this.unimplemented('getDecoderBudget() no está implementado en web.');
+  }
+
+  async configureDecoderBudget(_options: {
+    policy?: 'downgrade' | 'queue' | 'off';
+    maxInstances?: number;
+  }): Promise<DecoderBudgetInfo> {
+    console.warn('ExoPlayerSignage: configureDecoderBudget() no está disponible en web.');
+    throw this.unimplemented('configureDecoderBudget() no está implementado en web.');
+  }
+
+  async addListener(_eventName: string, _listenerFunc: (data: any) => void): Promise<any> {
     console.warn('ExoPlayerSignage: addListener() no está disponible en web.');
     throw this.unimplemented('addListener() no está implementado en web.');
   }